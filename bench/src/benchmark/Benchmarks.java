@@ -0,0 +1,588 @@
+package benchmark;
+
+import app.Admin;
+import app.Checkpoint;
+import app.CommandRegistry;
+import app.Journal;
+import app.audio.Collections.Playlist;
+import app.audio.Files.Song;
+import app.searchBar.Filters;
+import app.searchBar.SearchBar;
+import app.searchBar.SongScan;
+import app.user.User;
+import checker.CheckerConstants;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import fileio.catalogue.CatalogueCompiler;
+import fileio.catalogue.MappedCatalogue;
+import fileio.input.CommandInput;
+import fileio.input.FiltersInput;
+import fileio.input.LibraryInput;
+import fileio.input.SongInput;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark suite for the engine hot paths: song search per filter combination,
+ * time simulation with active players, top-N queries, command dispatch, library
+ * startup from JSON and from a compiled catalogue, journaling, and end-to-end
+ * command throughput. Run from the project root, optionally passing comma
+ * separated library sizes (songs and users), e.g. {@code 10000,100000,1000000}.
+ */
+public final class Benchmarks {
+    private static final String DEFAULT_SIZES = "10000,100000";
+    private static final long SEED = 42;
+    private static final int PODCASTS_PER_USER = 100;
+    private static final int PLAYLISTS_PER_USER = 10;
+    private static final int LIKES_PER_SONG = 100;
+    private static final int FOLLOWS_PER_PLAYLIST = 5;
+    private static final int COMMAND_BATCH = 1024;
+    private static final int COMMAND_LOG = 100_000;
+    private static final int COMMAND_KINDS = 6;
+    private static final int SECONDS_PER_COMMAND = 3;
+    private static final int SEARCH_RESULTS = 5;
+    private static final int[] PLAYLIST_SIZES = {1_000, 10_000, 50_000};
+    private static final int SONG_DURATION = 180;
+    private static final int USERS_PER_ONLINE_USER = 50;
+    private static final int MEMORY_USERS = 200_000;
+    private static final int MEMORY_SONGS = 1_000;
+    private static final int GC_ROUNDS = 3;
+    private static final int SCALED_LIBRARY_SONGS = 50_000;
+    private static final int STARTUP_LIBRARY_SIZE = 100_000;
+    private static final int JOURNAL_COMMANDS = 20_000;
+    private static final int RANKED_PLAYLISTS = 1_000_000;
+
+    private Benchmarks() {
+    }
+
+    /**
+     * @param args optional comma separated library sizes
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void main(final String[] args) throws IOException {
+        String sizes = args.length > 0 ? args[0] : DEFAULT_SIZES;
+        for (String size : sizes.split(",")) {
+            runSuite(Integer.parseInt(size.trim()));
+        }
+        playlistBenchmarks();
+        playlistRankingBenchmark();
+        memoryBenchmark();
+        songMemoryBenchmark();
+        startupBenchmark();
+        endToEnd();
+    }
+
+    private static void runSuite(final int size) {
+        System.out.printf("%n== %d songs, %d users ==%n", size, size);
+        LibraryInput library = LibraryGenerator.generate(size, size,
+                Math.max(1, size / PODCASTS_PER_USER), SEED);
+
+        Harness.once("setup (setUsers + setSongs + setPodcasts)", size, "songs", () -> {
+            Admin.newInstance();
+            Admin.setUsers(library.getUsers());
+            Admin.setSongs(library.getSongs());
+            Admin.setPodcasts(library.getPodcasts());
+            return Admin.getSongs().size();
+        });
+
+        searchBenchmarks();
+        scanBenchmarks();
+        topBenchmarks(size);
+        collectionSearchBenchmarks(size);
+        dispatchBenchmark(size);
+        playbackBenchmark(size);
+        commandLogBenchmark(size);
+        checkpointBenchmark(size);
+        journalBenchmark(size);
+        onlineUsersBenchmark(size);
+    }
+
+    private static void searchBenchmarks() {
+        search("search song: name prefix", filters -> filters.setName("Love"));
+        search("search song: album", filters -> filters.setAlbum("Album 7"));
+        search("search song: one tag", filters -> filters.setTags(tags("#chill")));
+        search("search song: two tags", filters -> filters.setTags(tags("#chill", "#live")));
+        search("search song: lyrics", filters -> filters.setLyrics("fire heart"));
+        search("search song: genre", filters -> filters.setGenre("rock"));
+        search("search song: releaseYear <", filters -> filters.setReleaseYear("<1970"));
+        search("search song: releaseYear =", filters -> filters.setReleaseYear("1999"));
+        search("search song: releaseYear >", filters -> filters.setReleaseYear(">1980"));
+        search("search song: artist", filters -> filters.setArtist("Artist 3"));
+        search("search song: genre + releaseYear", filters -> {
+            filters.setGenre("pop");
+            filters.setReleaseYear(">2000");
+        });
+        search("search song: tag + releaseYear", filters -> {
+            filters.setTags(tags("#live"));
+            filters.setReleaseYear("<1965");
+        });
+        search("search song: artist + tags", filters -> {
+            filters.setArtist("Artist 3");
+            filters.setTags(tags("#party"));
+        });
+        search("search song: no match", filters -> filters.setLyrics("no such lyrics"));
+    }
+
+    private static void collectionSearchBenchmarks(final int size) {
+        // run after topBenchmarks, which gives the first tenth of the users a public playlist
+        String lastOwner = LibraryGenerator.username(size / PLAYLISTS_PER_USER - 1);
+        search("search playlist: name prefix, all match", "playlist",
+                filters -> filters.setName("playlist"));
+        search("search playlist: name prefix, one match", "playlist",
+                filters -> filters.setName("playlist " + (size / PLAYLISTS_PER_USER - 1)));
+        search("search playlist: owner of the last one", "playlist",
+                filters -> filters.setOwner(lastOwner));
+        search("search playlist: followers >", "playlist",
+                filters -> filters.setFollowers(">" + FOLLOWS_PER_PLAYLIST));
+        search("search playlist: followers >, few match", "playlist",
+                filters -> filters.setFollowers(">" + 3 * FOLLOWS_PER_PLAYLIST));
+        search("search playlist: no match", "playlist", filters -> filters.setName("none"));
+        search("search podcast: name prefix, all match", "podcast",
+                filters -> filters.setName("Podcast"));
+        search("search podcast: owner", "podcast",
+                filters -> filters.setOwner(LibraryGenerator.username(0)));
+    }
+
+    private static void search(final String name, final FilterSetup setup) {
+        search(name, "song", setup);
+    }
+
+    private static void search(final String name, final String type, final FilterSetup setup) {
+        FiltersInput input = new FiltersInput();
+        setup.apply(input);
+        Filters filters = new Filters(input);
+        SearchBar searchBar = new SearchBar(LibraryGenerator.username(0));
+        Harness.run(name, () -> searchBar.search(filters, type).size());
+    }
+
+    private static void scanBenchmarks() {
+        scan("full scan: genre + releaseYear", filters -> {
+            filters.setGenre("pop");
+            filters.setReleaseYear(">2000");
+        });
+        scan("full scan: artist + tags", filters -> {
+            filters.setArtist("Artist 3");
+            filters.setTags(tags("#party"));
+        });
+        scan("full scan: album + name", filters -> {
+            filters.setAlbum("Album 7");
+            filters.setName("Love");
+        });
+    }
+
+    /**
+     * Counts every song matching the filters, once over the columns of the song
+     * store and once through the matchers of each song object.
+     */
+    private static void scan(final String name, final FilterSetup setup) {
+        FiltersInput input = new FiltersInput();
+        setup.apply(input);
+        Filters filters = new Filters(input);
+        Harness.run(name + " (columns)",
+                () -> SongScan.scan(Admin.getSongStore(), filters, Integer.MAX_VALUE).size());
+        Harness.run(name + " (song objects)", () -> {
+            int matches = 0;
+            for (Song song : Admin.getSongs()) {
+                if ((filters.getName() == null || song.matchesName(filters.getName()))
+                        && (filters.getAlbum() == null || song.matchesAlbum(filters.getAlbum()))
+                        && (filters.getTags() == null || song.matchesTags(filters.getTags()))
+                        && (filters.getGenre() == null || song.matchesGenre(filters.getGenre()))
+                        && (filters.getReleaseYear() == null
+                        || song.matchesReleaseYear(filters.getReleaseYear()))
+                        && (filters.getArtist() == null
+                        || song.matchesArtist(filters.getArtist()))) {
+                    matches++;
+                }
+            }
+            return matches;
+        });
+    }
+
+    private static void topBenchmarks(final int size) {
+        Random random = new Random(SEED);
+        List<Song> songs = Admin.getSongs();
+        for (int i = 0; i < size / LIKES_PER_SONG; i++) {
+            songs.get(random.nextInt(songs.size())).like();
+        }
+        Harness.run("getTop5Songs", () -> Admin.getTop5Songs().size());
+
+        List<Playlist> playlists = new ArrayList<>();
+        for (int i = 0; i < size / PLAYLISTS_PER_USER; i++) {
+            User user = Admin.getUser(LibraryGenerator.username(i));
+            user.createPlaylist("playlist " + i, i);
+            playlists.add(user.getPlaylists().get(0));
+        }
+        for (int i = 0; i < playlists.size() * FOLLOWS_PER_PLAYLIST; i++) {
+            playlists.get(random.nextInt(playlists.size())).increaseFollowers();
+        }
+        Harness.run("getTop5Playlists (" + playlists.size() + " playlists)",
+                () -> Admin.getTop5Playlists().size());
+    }
+
+    private static void dispatchBenchmark(final int size) {
+        Random random = new Random(SEED);
+        CommandInput[] commands = new CommandInput[COMMAND_BATCH];
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = command("status", LibraryGenerator.username(random.nextInt(size)), 0);
+        }
+        int[] next = {0};
+        Harness.run("dispatch status (user lookup + output node)", () -> {
+            CommandInput command = commands[next[0]++ & (COMMAND_BATCH - 1)];
+            return CommandRegistry.dispatch(command).size();
+        });
+    }
+
+    private static void playbackBenchmark(final int size) {
+        // every user plays a song on repeat, so no player ever stops
+        FiltersInput input = new FiltersInput();
+        input.setAlbum("Album 0");
+        Filters filters = new Filters(input);
+        for (int i = 0; i < size; i++) {
+            User user = Admin.getUser(LibraryGenerator.username(i));
+            user.search(filters, "song");
+            user.select(1 + i % SEARCH_RESULTS);
+            user.load();
+            user.repeat();
+            user.repeat();
+        }
+        int[] timestamp = {Admin.getTimestamp()};
+        Harness.run("updateTimestamp +1s (" + size + " active players)", () -> {
+            Admin.updateTimestamp(++timestamp[0]);
+            return timestamp[0];
+        });
+    }
+
+    private static void commandLogBenchmark(final int size) {
+        Random random = new Random(SEED);
+        List<CommandInput> log = new ArrayList<>(COMMAND_LOG);
+        int timestamp = Admin.getTimestamp();
+        FiltersInput filters = new FiltersInput();
+        filters.setGenre("rock");
+        for (int i = 0; i < COMMAND_LOG; i++) {
+            String user = LibraryGenerator.username(random.nextInt(size));
+            timestamp += random.nextInt(SECONDS_PER_COMMAND);
+            String[] kinds = {"search", "select", "load", "status", "like", "getTop5Songs"};
+            CommandInput command = command(kinds[i % COMMAND_KINDS], user, timestamp);
+            command.setType("song");
+            command.setFilters(filters);
+            command.setItemNumber(1);
+            log.add(command);
+        }
+        Harness.once("command log through dispatch (" + COMMAND_LOG + " commands)",
+                COMMAND_LOG, "commands", () -> {
+                    long outputs = 0;
+                    for (CommandInput command : log) {
+                        Admin.updateTimestamp(command.getTimestamp());
+                        outputs += CommandRegistry.dispatch(command).size();
+                    }
+                    return outputs;
+                });
+    }
+
+    private static void checkpointBenchmark(final int size) {
+        File checkpoint;
+        try {
+            checkpoint = File.createTempFile("checkpoint", ".bin");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        checkpoint.deleteOnExit();
+        Harness.once("checkpoint save (after the command log)", size, "users", () -> {
+            try {
+                Checkpoint.save(checkpoint.toPath(), COMMAND_LOG, COMMAND_LOG);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return checkpoint.length();
+        });
+        System.out.printf("%-56s %14d bytes%n", "checkpoint size", checkpoint.length());
+        Harness.once("checkpoint restore", size, "users", () -> {
+            try {
+                return Checkpoint.restore(checkpoint.toPath()).getCommands();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void journalBenchmark(final int size) {
+        File journal;
+        try {
+            journal = File.createTempFile("journal", ".bin");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        journal.deleteOnExit();
+        // every run creates new playlists, so every command changes the state; the run
+        // forcing every record comes first, as its cost is the disk and not a cold JIT
+        journalRun("createPlaylist, journal forced per record", size, "b", journal, 1);
+        journalRun("createPlaylist, no journal", size, "a", null, 0);
+        journalRun("createPlaylist, journal forced per " + Journal.DEFAULT_GROUP_SIZE
+                + " records", size, "c", journal, Journal.DEFAULT_GROUP_SIZE);
+        System.out.printf("%-56s %14d bytes%n", "journal size", journal.length());
+    }
+
+    private static void journalRun(final String name, final int size, final String prefix,
+                                   final File journal, final int groupSize) {
+        Random random = new Random(SEED);
+        CommandInput[] commands = new CommandInput[JOURNAL_COMMANDS];
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = command("createPlaylist",
+                    LibraryGenerator.username(random.nextInt(size)), Admin.getTimestamp());
+            commands[i].setPlaylistName(prefix + i);
+        }
+        Harness.once(name + " (" + JOURNAL_COMMANDS + ")", JOURNAL_COMMANDS, "commands", () -> {
+            try (Journal opened = journal == null ? null
+                    : Journal.open(journal.toPath(), groupSize,
+                            Journal.DEFAULT_MAX_DELAY_MILLIS)) {
+                Admin.setJournal(opened);
+                long outputs = 0;
+                for (CommandInput command : commands) {
+                    outputs += CommandRegistry.dispatch(command).size();
+                }
+                return outputs;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                Admin.setJournal(null);
+            }
+        });
+    }
+
+    private static void onlineUsersBenchmark(final int size) {
+        // 2% of the users stay online
+        for (int i = 0; i < size; i++) {
+            if (i % USERS_PER_ONLINE_USER != 0) {
+                Admin.getUser(LibraryGenerator.username(i)).switchConnectionStatus();
+            }
+        }
+        Harness.run("getOnlineUsers (" + size / USERS_PER_ONLINE_USER + " of "
+                + size + " online)", () -> Admin.getOnlineUsers().size());
+    }
+
+    private static void memoryBenchmark() {
+        System.out.printf("%n== memory per user (%d users) ==%n", MEMORY_USERS);
+        LibraryInput library = LibraryGenerator.generate(MEMORY_SONGS, MEMORY_USERS, 1, SEED);
+        Admin.newInstance();
+        Admin.setSongs(library.getSongs());
+        long base = usedHeap();
+
+        Admin.setUsers(library.getUsers());
+        long idle = usedHeap();
+        System.out.printf("%-56s %14.1f bytes/user%n", "idle (after setUsers)",
+                (double) (idle - base) / MEMORY_USERS);
+
+        FiltersInput input = new FiltersInput();
+        input.setAlbum("Album 0");
+        Filters filters = new Filters(input);
+        for (int i = 0; i < MEMORY_USERS; i++) {
+            User user = Admin.getUser(LibraryGenerator.username(i));
+            user.search(filters, "song");
+            user.select(1);
+            user.load();
+        }
+        long active = usedHeap();
+        System.out.printf("%-56s %14.1f bytes/user%n", "active (song loaded)",
+                (double) (active - base) / MEMORY_USERS);
+    }
+
+    private static void songMemoryBenchmark() throws IOException {
+        // the bundled songs repeated and parsed by Jackson, so every value is its own string
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode librarySongs = objectMapper.readTree(
+                new File(CheckerConstants.TESTS_PATH + "library/library.json")).get("songs");
+        ArrayNode scaled = objectMapper.createArrayNode();
+        while (scaled.size() < SCALED_LIBRARY_SONGS) {
+            scaled.addAll((ArrayNode) librarySongs);
+        }
+        String json = objectMapper.writeValueAsString(scaled);
+        System.out.printf("%n== memory per song (library.json scaled to %d songs) ==%n",
+                scaled.size());
+
+        for (boolean lyricsOnDisk : new boolean[] {false, true}) {
+            Admin.newInstance();
+            Admin.setLyricsOnDisk(lyricsOnDisk);
+            long base = usedHeap();
+            Admin.setSongs(objectMapper.readValue(json, new TypeReference<List<SongInput>>() { }));
+            long loaded = usedHeap();
+            System.out.printf("%-56s %14.1f bytes/song%n", "songs retained after setSongs"
+                    + (lyricsOnDisk ? " (lyrics on disk)" : ""),
+                    (double) (loaded - base) / scaled.size());
+
+            FiltersInput input = new FiltersInput();
+            input.setLyrics("love");
+            Filters filters = new Filters(input);
+            SearchBar searchBar = new SearchBar("bench");
+            Harness.run("search song: lyrics" + (lyricsOnDisk ? " (lyrics on disk)" : ""),
+                    () -> searchBar.search(filters, "song").size());
+        }
+        Admin.newInstance();
+    }
+
+    private static void startupBenchmark() throws IOException {
+        System.out.printf("%n== startup with %d songs and users ==%n", STARTUP_LIBRARY_SIZE);
+        LibraryInput library = LibraryGenerator.generate(STARTUP_LIBRARY_SIZE,
+                STARTUP_LIBRARY_SIZE, STARTUP_LIBRARY_SIZE / PODCASTS_PER_USER, SEED);
+        File json = File.createTempFile("library", ".json");
+        File catalogue = File.createTempFile("library", ".bin");
+        json.deleteOnExit();
+        catalogue.deleteOnExit();
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.writeValue(json, library);
+        CatalogueCompiler.compile(library, catalogue.toPath());
+        System.out.printf("%-56s %14d bytes%n", "library JSON", json.length());
+        System.out.printf("%-56s %14d bytes%n", "compiled catalogue", catalogue.length());
+
+        // the first load of each path runs before the JIT has compiled it
+        Harness.once("first load: parse JSON", STARTUP_LIBRARY_SIZE, "songs",
+                () -> loadJson(objectMapper, json));
+        Harness.once("first load: map catalogue", STARTUP_LIBRARY_SIZE, "songs",
+                () -> loadCatalogue(catalogue));
+        Harness.run("load: parse JSON", () -> loadJson(objectMapper, json));
+        Harness.run("load: map catalogue", () -> loadCatalogue(catalogue));
+    }
+
+    private static long loadJson(final ObjectMapper objectMapper, final File json) {
+        try {
+            LibraryInput library = objectMapper.readValue(json, LibraryInput.class);
+            Admin.newInstance();
+            Admin.setUsers(library.getUsers());
+            Admin.setSongs(library.getSongs());
+            Admin.setPodcasts(library.getPodcasts());
+            return Admin.getSongs().size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long loadCatalogue(final File catalogue) {
+        try {
+            MappedCatalogue library = MappedCatalogue.open(catalogue.toPath());
+            Admin.newInstance();
+            Admin.setUsers(library.getUsers());
+            Admin.setSongs(library.getSongs());
+            Admin.setPodcasts(library.getPodcasts());
+            return Admin.getSongs().size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void playlistBenchmarks() {
+        System.out.printf("%n== playlist membership ==%n");
+        for (int size : PLAYLIST_SIZES) {
+            // half of the pool is in the playlist, so toggles both add and remove
+            Song[] pool = new Song[2 * size];
+            Playlist playlist = new Playlist("bench", LibraryGenerator.username(0));
+            for (int i = 0; i < pool.length; i++) {
+                pool[i] = new Song("song " + i, SONG_DURATION);
+                if (i % 2 == 0) {
+                    playlist.addSong(pool[i]);
+                }
+            }
+
+            Random random = new Random(SEED);
+            Harness.run("toggle song (" + size + " songs)", () -> {
+                Song song = pool[random.nextInt(pool.length)];
+                if (playlist.containsSong(song)) {
+                    playlist.removeSong(song);
+                } else {
+                    playlist.addSong(song);
+                }
+                return playlist.getNumberOfTracks();
+            });
+            Harness.run("getTrackByIndex (" + size + " songs)", () -> playlist
+                    .getTrackByIndex(random.nextInt(playlist.getNumberOfTracks()))
+                    .getDuration());
+        }
+    }
+
+    /**
+     * Ranks {@link #RANKED_PLAYLISTS} playlists, ten per user, independently of
+     * the library size of the suites.
+     */
+    private static void playlistRankingBenchmark() {
+        System.out.printf("%n== playlist ranking ==%n");
+        LibraryInput library = LibraryGenerator.generate(1,
+                RANKED_PLAYLISTS / PLAYLISTS_PER_USER, 1, SEED);
+        Admin.newInstance();
+        Admin.setUsers(library.getUsers());
+
+        List<Playlist> playlists = new ArrayList<>(RANKED_PLAYLISTS);
+        Harness.once("createPlaylist (" + RANKED_PLAYLISTS + " playlists)", RANKED_PLAYLISTS,
+                "playlists", () -> {
+                    for (int i = 0; i < RANKED_PLAYLISTS; i++) {
+                        User user = Admin.getUser(LibraryGenerator.username(i
+                                / PLAYLISTS_PER_USER));
+                        user.createPlaylist("playlist " + i, i);
+                        playlists.add(user.getPlaylists().get(i % PLAYLISTS_PER_USER));
+                    }
+                    return playlists.size();
+                });
+
+        Random random = new Random(SEED);
+        for (int i = 0; i < RANKED_PLAYLISTS; i++) {
+            playlists.get(random.nextInt(RANKED_PLAYLISTS)).increaseFollowers();
+        }
+        Harness.run("getTop5Playlists (" + RANKED_PLAYLISTS + " playlists)",
+                () -> Admin.getTop5Playlists().size());
+        Harness.run("follow + unfollow (" + RANKED_PLAYLISTS + " playlists)", () -> {
+            Playlist playlist = playlists.get(random.nextInt(RANKED_PLAYLISTS));
+            playlist.increaseFollowers();
+            playlist.decreaseFollowers();
+            return playlist.getFollowers();
+        });
+        Admin.newInstance();
+    }
+
+    private static void endToEnd() throws IOException {
+        System.out.printf("%n== Main.action on the bundled input ==%n");
+        File input = new File(CheckerConstants.TESTS_PATH + "test04_etapa2.json");
+        int commands = new ObjectMapper().readTree(input).size();
+        File output = File.createTempFile("bench", ".json");
+        output.deleteOnExit();
+        Harness.run("Main.action (" + commands + " commands per run)", () -> {
+            try {
+                Admin.newInstance();
+                main.Main.action(input.getName(), output.getPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return output.length();
+        });
+    }
+
+    private static CommandInput command(final String name, final String user,
+                                        final int timestamp) {
+        CommandInput command = new CommandInput();
+        command.setCommand(name);
+        command.setUsername(user);
+        command.setTimestamp(timestamp);
+        return command;
+    }
+
+    private static ArrayList<String> tags(final String... tags) {
+        return new ArrayList<>(Arrays.asList(tags));
+    }
+
+    @FunctionalInterface
+    private interface FilterSetup {
+        void apply(FiltersInput filters);
+    }
+}
@@ -0,0 +1,161 @@
+package benchmark;
+
+import app.audio.Collections.Playlist;
+import app.audio.Files.Song;
+import app.player.PlayerSource;
+import app.utils.Enums;
+
+import java.util.Random;
+
+/**
+ * Randomized equivalence check of {@link PlayerSource#fastForward} against the
+ * stepwise loop of {@code Player.simulatePlayer}: random playlists with empty
+ * tracks, every repeat mode, shuffled or not, playlists edited after shuffling
+ * and gaps of up to a day. Prints the first mismatch and exits with status 1,
+ * or prints the number of cases checked.
+ */
+public final class FastForwardCheck {
+    private static final long SEED = 42;
+    private static final int CASES = 200_000;
+    private static final int MAX_TRACKS = 8;
+    private static final int MAX_DURATION = 50;
+    private static final int EMPTY_TRACK_ODDS = 4;
+    private static final int LIBRARY_ODDS = 5;
+    private static final int EDIT_ODDS = 4;
+    private static final int SHUFFLE_SEEDS = 100;
+    private static final int SHORT_GAP = 100;
+    private static final int LONG_GAP = 86_400;
+    private static final int STEPS_AFTER = 4;
+
+    private FastForwardCheck() {
+    }
+
+    /**
+     * @param args optional number of cases
+     */
+    public static void main(final String[] args) {
+        int cases = args.length > 0 ? Integer.parseInt(args[0]) : CASES;
+        Random random = new Random(SEED);
+        Enums.RepeatMode[] modes = Enums.RepeatMode.values();
+        int checked = 0;
+        for (int i = 0; i < cases; i++) {
+            Enums.RepeatMode mode = modes[random.nextInt(modes.length)];
+            boolean shuffle = random.nextBoolean();
+            PlayerSource[] sources = random.nextInt(LIBRARY_ODDS) == 0
+                    ? librarySources(random) : playlistSources(random, shuffle);
+            if (sources == null) {
+                continue;
+            }
+            PlayerSource stepped = sources[0];
+            PlayerSource forwarded = sources[1];
+            int gap = random.nextInt(random.nextBoolean() ? SHORT_GAP : LONG_GAP);
+
+            String expected = run(stepped, gap, mode, shuffle, false);
+            String actual = run(forwarded, gap, mode, shuffle, true);
+            if (!expected.equals(actual)) {
+                System.out.printf("case %d (%s, shuffle %b, gap %d): expected %s, got %s%n",
+                        i, mode, shuffle, gap, expected, actual);
+                System.exit(1);
+            }
+            checked++;
+        }
+        System.out.printf("fastForward matches the stepwise loop in %d cases%n", checked);
+    }
+
+    private static PlayerSource[] librarySources(final Random random) {
+        Song song = new Song("song", 1 + random.nextInt(MAX_DURATION));
+        return new PlayerSource[] {
+            new PlayerSource(Enums.PlayerSourceType.LIBRARY, song),
+            new PlayerSource(Enums.PlayerSourceType.LIBRARY, song),
+        };
+    }
+
+    /**
+     * Builds two identical sources over a random playlist, part way through it,
+     * and sometimes edits the playlist after shuffling it.
+     *
+     * @return the two sources, or null if the playlist starts with an empty track
+     */
+    private static PlayerSource[] playlistSources(final Random random, final boolean shuffle) {
+        Playlist playlist = new Playlist("playlist", LibraryGenerator.username(0));
+        int tracks = 1 + random.nextInt(MAX_TRACKS);
+        for (int i = 0; i < tracks; i++) {
+            playlist.addSong(randomSong(random, i));
+        }
+        if (playlist.getTrackByIndex(0).getDuration() == 0) {
+            return null;
+        }
+
+        PlayerSource[] sources = new PlayerSource[2];
+        int skipped = random.nextInt(tracks);
+        int seed = random.nextInt(SHUFFLE_SEEDS);
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = new PlayerSource(Enums.PlayerSourceType.PLAYLIST, playlist);
+            for (int j = 0; j < skipped; j++) {
+                sources[i].setNextAudioFile(Enums.RepeatMode.REPEAT_ALL, false);
+            }
+            if (shuffle) {
+                sources[i].generateShuffleOrder(seed);
+                sources[i].updateShuffleIndex();
+            }
+        }
+        if (sources[0].getDuration() == 0) {
+            return null;
+        }
+        int rewind = random.nextInt(sources[0].getDuration());
+        for (PlayerSource source : sources) {
+            source.skip(-rewind);
+        }
+
+        if (random.nextInt(EDIT_ODDS) == 0) {
+            if (random.nextBoolean() && playlist.getNumberOfTracks() > 1) {
+                playlist.removeSong(playlist.getNumberOfTracks() - 1);
+            } else {
+                playlist.addSong(randomSong(random, tracks));
+            }
+        }
+        return sources;
+    }
+
+    private static Song randomSong(final Random random, final int index) {
+        int duration = random.nextInt(EMPTY_TRACK_ODDS) == 0 ? 0 : 1 + random.nextInt(MAX_DURATION);
+        return new Song("song " + index, duration);
+    }
+
+    /**
+     * Plays a source through a gap the way {@code Player.simulatePlayer} does,
+     * then steps through a few more tracks.
+     *
+     * @return the positions the source went through, or the exception it threw
+     */
+    private static String run(final PlayerSource source, final int gap,
+                              final Enums.RepeatMode mode, final boolean shuffle,
+                              final boolean fastForward) {
+        StringBuilder trace = new StringBuilder();
+        try {
+            if (!fastForward || !source.fastForward(gap, mode, shuffle)) {
+                int time = gap;
+                boolean paused = false;
+                Enums.RepeatMode repeatMode = mode;
+                while (!paused && time >= source.getDuration()) {
+                    time -= source.getDuration();
+                    paused = source.setNextAudioFile(repeatMode, shuffle);
+                    if (repeatMode == Enums.RepeatMode.REPEAT_ONCE) {
+                        repeatMode = Enums.RepeatMode.NO_REPEAT;
+                    }
+                }
+                if (!paused) {
+                    source.skip(-time);
+                }
+            }
+            for (int i = 0; i < STEPS_AFTER; i++) {
+                trace.append(source.getAudioFile().getName()).append(':')
+                        .append(source.getDuration()).append(' ');
+                source.setNextAudioFile(Enums.RepeatMode.NO_REPEAT, shuffle);
+            }
+        } catch (IndexOutOfBoundsException e) {
+            trace.append(e.getClass().getSimpleName());
+        }
+        return trace.toString();
+    }
+}
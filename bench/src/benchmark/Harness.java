@@ -0,0 +1,74 @@
+package benchmark;
+
+/**
+ * Minimal measurement loop: runs an operation for a warmup period, then for a
+ * measurement period, and prints the average time per operation.
+ */
+final class Harness {
+    private static final long WARMUP_NANOS = 500_000_000L;
+    private static final long MEASURE_NANOS = 1_000_000_000L;
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    // results are folded in here so the JIT cannot drop the measured work
+    private static volatile long sink;
+
+    private Harness() {
+    }
+
+    /**
+     * Measures an operation and prints one result line.
+     *
+     * @param name      the benchmark name
+     * @param operation the operation to measure
+     */
+    static void run(final String name, final Operation operation) {
+        long blackhole = 0;
+        long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < warmupEnd) {
+            blackhole += operation.run();
+        }
+
+        long ops = 0;
+        long start = System.nanoTime();
+        long stop = start + MEASURE_NANOS;
+        long now;
+        do {
+            blackhole += operation.run();
+            ops++;
+            now = System.nanoTime();
+        } while (now < stop);
+        sink += blackhole;
+
+        long elapsed = now - start;
+        System.out.printf("%-56s %14.1f ns/op %14.0f ops/s%n", name,
+                (double) elapsed / ops, ops * NANOS_PER_SECOND / elapsed);
+    }
+
+    /**
+     * Times a single run of a long operation and prints one result line.
+     *
+     * @param name      the benchmark name
+     * @param units     the number of units (e.g. commands) the operation processes
+     * @param unitName  the name of the unit
+     * @param operation the operation to time
+     */
+    static void once(final String name, final long units, final String unitName,
+                     final Operation operation) {
+        long start = System.nanoTime();
+        sink += operation.run();
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-56s %14.3f s     %14.0f %s/s%n", name,
+                elapsed / NANOS_PER_SECOND, units * NANOS_PER_SECOND / elapsed, unitName);
+    }
+
+    /**
+     * A measured operation. Its result is consumed so that it is not optimized away.
+     */
+    @FunctionalInterface
+    interface Operation {
+        /**
+         * @return any value derived from the work done
+         */
+        long run();
+    }
+}
@@ -0,0 +1,138 @@
+package benchmark;
+
+import fileio.input.EpisodeInput;
+import fileio.input.LibraryInput;
+import fileio.input.PodcastInput;
+import fileio.input.SongInput;
+import fileio.input.UserInput;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Builds synthetic {@link LibraryInput}s of any size, shaped like
+ * input/library/library.json: a handful of genres, albums of ten songs,
+ * artists with a few albums each, hashtags and short lyrics.
+ */
+final class LibraryGenerator {
+    static final String[] GENRES = {
+        "pop", "rock", "rap", "jazz", "blues", "country", "electronic", "metal",
+    };
+    static final String[] WORDS = {
+        "love", "night", "dream", "fire", "heart", "rhythm", "light", "soul",
+        "storm", "echo", "shadow", "river", "city", "summer", "wild", "neon",
+        "golden", "silent", "broken", "electric", "midnight", "ocean", "star", "road",
+    };
+    static final String[] TAGS = {
+        "#pop", "#rock", "#chill", "#party", "#retro", "#spotify", "#deezer",
+        "#electronic", "#dance", "#acoustic", "#live", "#summer",
+    };
+    private static final String[] CITIES = {"Bucharest", "Cluj", "Iasi", "Timisoara"};
+
+    private static final int SONGS_PER_ALBUM = 10;
+    private static final int ALBUMS_PER_ARTIST = 5;
+    private static final int TAGS_PER_SONG = 3;
+    private static final int LYRICS_WORDS = 10;
+    private static final int FIRST_YEAR = 1960;
+    private static final int YEARS = 64;
+    private static final int MIN_DURATION = 60;
+    private static final int DURATIONS = 360;
+    private static final int MIN_AGE = 16;
+    private static final int AGES = 60;
+    private static final int EPISODES_PER_PODCAST = 10;
+    private static final int MIN_EPISODE = 600;
+    private static final int EPISODE_DURATIONS = 3000;
+
+    private LibraryGenerator() {
+    }
+
+    /**
+     * Generates a library.
+     *
+     * @param songs    the number of songs
+     * @param users    the number of users
+     * @param podcasts the number of podcasts
+     * @param seed     the random seed
+     * @return the generated library
+     */
+    static LibraryInput generate(final int songs, final int users,
+                                 final int podcasts, final long seed) {
+        Random random = new Random(seed);
+        LibraryInput library = new LibraryInput();
+
+        ArrayList<SongInput> songInputs = new ArrayList<>(songs);
+        for (int i = 0; i < songs; i++) {
+            int album = i / SONGS_PER_ALBUM;
+            int artist = album / ALBUMS_PER_ARTIST;
+
+            SongInput song = new SongInput();
+            song.setName(capitalize(pick(random, WORDS)) + " " + pick(random, WORDS) + " " + i);
+            song.setDuration(MIN_DURATION + random.nextInt(DURATIONS));
+            song.setAlbum("Album " + album);
+            song.setArtist("Artist " + artist);
+            song.setGenre(GENRES[artist % GENRES.length]);
+            song.setReleaseYear(FIRST_YEAR + album % YEARS);
+
+            ArrayList<String> tags = new ArrayList<>();
+            for (int t = 0; t < TAGS_PER_SONG; t++) {
+                tags.add(pick(random, TAGS));
+            }
+            song.setTags(tags);
+
+            StringBuilder lyrics = new StringBuilder();
+            for (int w = 0; w < LYRICS_WORDS; w++) {
+                lyrics.append(w == 0 ? "" : " ").append(pick(random, WORDS));
+            }
+            song.setLyrics(lyrics.toString());
+            songInputs.add(song);
+        }
+        library.setSongs(songInputs);
+
+        ArrayList<UserInput> userInputs = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            UserInput user = new UserInput();
+            user.setUsername(username(i));
+            user.setAge(MIN_AGE + random.nextInt(AGES));
+            user.setCity(pick(random, CITIES));
+            userInputs.add(user);
+        }
+        library.setUsers(userInputs);
+
+        ArrayList<PodcastInput> podcastInputs = new ArrayList<>(podcasts);
+        for (int i = 0; i < podcasts; i++) {
+            ArrayList<EpisodeInput> episodes = new ArrayList<>();
+            for (int e = 0; e < EPISODES_PER_PODCAST; e++) {
+                EpisodeInput episode = new EpisodeInput();
+                episode.setName("Episode " + i + "." + e);
+                episode.setDuration(MIN_EPISODE + random.nextInt(EPISODE_DURATIONS));
+                episode.setDescription(pick(random, WORDS));
+                episodes.add(episode);
+            }
+            PodcastInput podcast = new PodcastInput();
+            podcast.setName("Podcast " + i);
+            podcast.setOwner(username(i % Math.max(1, users)));
+            podcast.setEpisodes(episodes);
+            podcastInputs.add(podcast);
+        }
+        library.setPodcasts(podcastInputs);
+        library.setArtists(new ArrayList<>());
+
+        return library;
+    }
+
+    /**
+     * @param index the user index
+     * @return the username of the generated user with that index
+     */
+    static String username(final int index) {
+        return "user" + index;
+    }
+
+    private static String pick(final Random random, final String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String capitalize(final String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
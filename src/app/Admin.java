@@ -2,60 +2,170 @@ package app;
 
 import app.audio.Collections.Album;
 import app.audio.Collections.Playlist;
+import app.audio.Collections.PlaylistIndex;
+import app.audio.Collections.PlaylistRanking;
 import app.audio.Collections.Podcast;
 import app.audio.Files.Episode;
+import app.audio.Files.LyricsFile;
 import app.audio.Files.Song;
+import app.audio.Files.SongRanking;
+import app.audio.Files.SongStore;
+import app.searchBar.SongIndex;
 import app.user.Artist;
+import app.user.OnlineUsers;
+import app.user.PlaybackScheduler;
 import app.user.User;
 import fileio.input.EpisodeInput;
 import fileio.input.PodcastInput;
 import fileio.input.SongInput;
 import fileio.input.UserInput;
 import fileio.input.CommandInput;
-import lombok.Getter;
-import lombok.Setter;
 
+import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 
 
-public final class Admin {
+public final class Admin implements Serializable {
+    private static final long serialVersionUID = 1L;
     private static final int TOP_SONGS_LIMIT = 5;
-    private static Admin instance;
-    @Getter
-    @Setter
-    private static List<Artist> artists = new ArrayList<>();;
-    private static List<User> users;
-    private static List<Song> songs;
-    private static List<Podcast> podcasts;
-    @Getter
-    private static List<Album> albums = new ArrayList<>();
-    private static int timestamp;
+    // every thread drives its own engine, so independent command logs can run concurrently
+    private static final ThreadLocal<Admin> INSTANCE = ThreadLocal.withInitial(Admin::new);
+    private List<Artist> artists = new ArrayList<>();
+    // indexed by username, insertion-ordered so iteration follows registration order
+    private Map<String, User> users = new LinkedHashMap<>();
+    private OnlineUsers onlineUsers = new OnlineUsers();
+    // when set, song lyrics are kept in a temporary file instead of on the heap
+    private boolean lyricsOnDisk;
+    private SongStore songStore = new SongStore();
+    private SongIndex songIndex = new SongIndex(songStore);
+    private SongRanking songRanking = new SongRanking();
+    private PlaylistRanking playlistRanking = new PlaylistRanking();
+    private PlaylistIndex playlistIndex = new PlaylistIndex();
+    private List<Podcast> podcasts = new ArrayList<>();
+    private List<Album> albums = new ArrayList<>();
+    private int timestamp;
+    private PlaybackScheduler playbackScheduler = new PlaybackScheduler();
+    // records the changes made by mutating commands; an open file, so never checkpointed
+    private transient Journal journal;
 
     private Admin() {
         // private constructor to prevent external instantiation
-        users = new ArrayList<>();
-        songs = new ArrayList<>();
-        podcasts = new ArrayList<>();
-        timestamp = 0;
     }
 
     public static void resetArtist(){
-        artists.clear();
+        getInstance().artists.clear();
     }
 
     /**
-     * Gets the singleton instance of the Admin class.
+     * Gets the instance of the Admin class owned by the calling thread.
      *
      * @return The Admin instance.
      */
     public static Admin getInstance() {
-        if (instance == null) {
-            instance = new Admin();
+        return INSTANCE.get();
+    }
+
+    /**
+     * Replaces the calling thread's instance with an empty one, so the next
+     * command log starts from a clean state. The song store of the replaced
+     * instance is released.
+     */
+    public static void newInstance() {
+        replaceInstance(new Admin());
+    }
+
+    /**
+     * Replaces the calling thread's instance with one read from a checkpoint,
+     * releasing the song store of the replaced instance.
+     *
+     * @param admin The restored instance.
+     */
+    static void restore(final Admin admin) {
+        replaceInstance(admin);
+    }
+
+    private static void replaceInstance(final Admin admin) {
+        Admin previous = INSTANCE.get();
+        INSTANCE.set(admin);
+        if (previous != admin) {
+            // closes the lyrics file and deletes it, when lyrics are kept on disk
+            previous.songStore.close();
         }
-        return instance;
+    }
+
+    public static List<Artist> getArtists() {
+        return getInstance().artists;
+    }
+
+    public static void setArtists(final List<Artist> artists) {
+        getInstance().artists = artists;
+    }
+
+    public static List<Album> getAlbums() {
+        return getInstance().albums;
+    }
+
+    public static SongStore getSongStore() {
+        return getInstance().songStore;
+    }
+
+    /**
+     * Chooses where the lyrics of the songs set from now on are kept. Keeping them
+     * in a file trades a read on lyrics searches for most of the heap used by songs.
+     *
+     * @param lyricsOnDisk True to keep lyrics in a file, false to keep them on the heap.
+     */
+    public static void setLyricsOnDisk(final boolean lyricsOnDisk) {
+        getInstance().lyricsOnDisk = lyricsOnDisk;
+    }
+
+    /**
+     * Replaces the song store with an empty one, releasing the previous one.
+     */
+    private void newSongStore() {
+        songStore.close();
+        songStore = new SongStore(lyricsOnDisk ? LyricsFile.createTemporary() : null);
+        songIndex = new SongIndex(songStore);
+        songRanking = new SongRanking();
+    }
+
+    public static Journal getJournal() {
+        return getInstance().journal;
+    }
+
+    /**
+     * Attaches a journal that records the changes made from now on, or detaches
+     * the current one. The journal is kept by {@link #reset()}.
+     *
+     * @param journal The journal, or null to stop journaling.
+     */
+    public static void setJournal(final Journal journal) {
+        getInstance().journal = journal;
+    }
+
+    public static SongIndex getSongIndex() {
+        return getInstance().songIndex;
+    }
+
+    public static PlaylistRanking getPlaylistRanking() {
+        return getInstance().playlistRanking;
+    }
+
+    public static PlaylistIndex getPlaylistIndex() {
+        return getInstance().playlistIndex;
+    }
+
+    public static int getTimestamp() {
+        return getInstance().timestamp;
+    }
+
+    public static PlaybackScheduler getPlaybackScheduler() {
+        return getInstance().playbackScheduler;
     }
 
     /**
@@ -64,11 +174,14 @@ public final class Admin {
      * @param songsInput The list of song inputs to be added.
      */
     public static void addSongs(final ArrayList<SongInput> songsInput) {
+        Admin admin = getInstance();
         for (SongInput song : songsInput) {
-            songs.add(new Song(song.getName(), song.getDuration(),
+            Song newSong = admin.songStore.add(song.getName(), song.getDuration(),
                     song.getAlbum(), song.getTags(),
                     song.getLyrics(), song.getGenre(),
-                    song.getReleaseYear(), song.getArtist()));
+                    song.getReleaseYear(), song.getArtist());
+            admin.songIndex.add(newSong);
+            admin.songRanking.add(newSong);
         }
     }
     /**
@@ -77,7 +190,7 @@ public final class Admin {
      * @param albums The list of albums to be set.
      */
     public static void setAlbums(final List<Album> albums) {
-        Admin.albums = albums;
+        getInstance().albums = albums;
     }
     /**
      * Sets the list of users.
@@ -85,12 +198,20 @@ public final class Admin {
      * @param userInputList The list of user inputs to be set.
      */
     public static void setUsers(final List<UserInput> userInputList) {
-        users = new ArrayList<>();
+        Admin admin = getInstance();
+        admin.users = new LinkedHashMap<>();
+        admin.onlineUsers = new OnlineUsers();
+        admin.playlistRanking = new PlaylistRanking();
+        admin.playlistIndex = new PlaylistIndex();
         for (UserInput userInput : userInputList) {
-            users.add(new User(userInput.getUsername(),
+            admin.playlistRanking.addOwner(userInput.getUsername());
+            User user = new User(userInput.getUsername(),
                     userInput.getAge(),
                     userInput.getCity(),
-                    userInput.getType()));
+                    userInput.getType());
+            if (admin.users.putIfAbsent(userInput.getUsername(), user) == null) {
+                admin.onlineUsers.register(user);
+            }
         }
     }
     /**
@@ -99,16 +220,19 @@ public final class Admin {
      * @param songInputList The list of song inputs to be set.
      */
     public static void setSongs(final List<SongInput> songInputList) {
-        songs = new ArrayList<>();
+        Admin admin = getInstance();
+        admin.newSongStore();
         for (SongInput songInput : songInputList) {
-            songs.add(new Song(songInput.getName(),
+            Song song = admin.songStore.add(songInput.getName(),
                     songInput.getDuration(),
                     songInput.getAlbum(),
                     songInput.getTags(),
                     songInput.getLyrics(),
                     songInput.getGenre(),
                     songInput.getReleaseYear(),
-                    songInput.getArtist()));
+                    songInput.getArtist());
+            admin.songIndex.add(song);
+            admin.songRanking.add(song);
         }
     }
     /**
@@ -117,7 +241,7 @@ public final class Admin {
      * @param podcastInputList The list of podcast inputs to be set.
      */
     public static void setPodcasts(final List<PodcastInput> podcastInputList) {
-        podcasts = new ArrayList<>();
+        List<Podcast> podcasts = new ArrayList<>();
         for (PodcastInput podcastInput : podcastInputList) {
             List<Episode> episodes = new ArrayList<>();
             for (EpisodeInput episodeInput : podcastInput.getEpisodes()) {
@@ -128,22 +252,23 @@ public final class Admin {
             podcasts.add(new Podcast(podcastInput.getName(),
                     podcastInput.getOwner(), episodes));
         }
+        getInstance().podcasts = podcasts;
     }
     /**
      * Gets the list of available songs.
      *
-     * @return The list of songs.
+     * @return A read-only view of the songs, in library order.
      */
     public static List<Song> getSongs() {
-        return new ArrayList<>(songs);
+        return getInstance().songStore.asList();
     }
     /**
      * Gets the list of available podcasts.
      *
-     * @return The list of podcasts.
+     * @return A read-only view of the podcasts.
      */
     public static List<Podcast> getPodcasts() {
-        return new ArrayList<>(podcasts);
+        return Collections.unmodifiableList(getInstance().podcasts);
     }
     /**
      * Gets the list of available playlists.
@@ -152,7 +277,7 @@ public final class Admin {
      */
     public static List<Playlist> getPlaylists() {
         List<Playlist> playlists = new ArrayList<>();
-        for (User user : users) {
+        for (User user : getInstance().users.values()) {
             playlists.addAll(user.getPlaylists());
         }
         return playlists;
@@ -164,29 +289,24 @@ public final class Admin {
      * @return The user with the specified username.
      */
     public static User getUser(final String username) {
-        for (User user : users) {
-            if (user.getUsername().equals(username)) {
-                return user;
-            }
-        }
-        return null;
+        return getInstance().users.get(username);
     }
 
     /**
-     * Updates the timestamp and simulates time for all users.
+     * Updates the timestamp and simulates time for the users whose current
+     * track ends in the elapsed window. The other users catch up when next read.
      *
      * @param newTimestamp The new timestamp to be set.
      */
     public static void updateTimestamp(final int newTimestamp) {
-        int elapsed = newTimestamp - timestamp;
-        timestamp = newTimestamp;
+        Admin admin = getInstance();
+        int elapsed = newTimestamp - admin.timestamp;
+        admin.timestamp = newTimestamp;
         if (elapsed == 0) {
             return;
         }
 
-        for (User user : users) {
-            user.simulateTime(elapsed);
-        }
+        admin.playbackScheduler.advance(newTimestamp);
     }
     /**
      * Gets the top 5 songs based on likes.
@@ -194,18 +314,7 @@ public final class Admin {
      * @return The list of top 5 songs.
      */
     public static List<String> getTop5Songs() {
-        List<Song> sortedSongs = new ArrayList<>(songs);
-        sortedSongs.sort(Comparator.comparingInt(Song::getLikes).reversed());
-        List<String> topSongs = new ArrayList<>();
-        int count = 0;
-        for (Song song : sortedSongs) {
-            if (count >= TOP_SONGS_LIMIT) {
-                break;
-            }
-            topSongs.add(song.getName());
-            count++;
-        }
-        return topSongs;
+        return getInstance().songRanking.top(TOP_SONGS_LIMIT);
     }
     /**
      * Gets the top 5 playlists based on followers and timestamp.
@@ -213,30 +322,21 @@ public final class Admin {
      * @return The list of top 5 playlists.
      */
     public static List<String> getTop5Playlists() {
-        List<Playlist> sortedPlaylists = new ArrayList<>(getPlaylists());
-        sortedPlaylists.sort(Comparator.comparingInt(Playlist::getFollowers)
-                .reversed()
-                .thenComparing(Playlist::getTimestamp,
-                        Comparator.naturalOrder()));
-        List<String> topPlaylists = new ArrayList<>();
-        int count = 0;
-        for (Playlist playlist : sortedPlaylists) {
-            if (count >= TOP_SONGS_LIMIT) {
-                break;
-            }
-            topPlaylists.add(playlist.getName());
-            count++;
-        }
-        return topPlaylists;
+        return getInstance().playlistRanking.top(TOP_SONGS_LIMIT);
     }
     /**
      * Resets all data.
      */
     public static void reset() {
-        users = new ArrayList<>();
-        songs = new ArrayList<>();
-        podcasts = new ArrayList<>();
-        timestamp = 0;
+        Admin admin = getInstance();
+        admin.users = new LinkedHashMap<>();
+        admin.onlineUsers = new OnlineUsers();
+        admin.playlistRanking = new PlaylistRanking();
+        admin.playlistIndex = new PlaylistIndex();
+        admin.newSongStore();
+        admin.podcasts = new ArrayList<>();
+        admin.timestamp = 0;
+        admin.playbackScheduler = new PlaybackScheduler();
     }
     /**
      * Gets the list of online users.
@@ -244,13 +344,7 @@ public final class Admin {
      * @return The list of online users.
      */
     public static ArrayList<String> getOnlineUsers() {
-        ArrayList<String> onlineUsers = new ArrayList<>();
-        for (User user : users) {
-            if (user.isStatus() && user.getType() == null) {
-                onlineUsers.add(user.getUsername());
-            }
-        }
-        return onlineUsers;
+        return getInstance().onlineUsers.getUsernames();
     }
     /**
      * Adds a new user to the system.
@@ -265,19 +359,25 @@ public final class Admin {
     public static String addUser(final String username,
                                  final Integer age,
                                  final String city, final String type) {
-        User user = getUser(username);
-        if (user != null && users.contains(user)) {
+        Admin admin = getInstance();
+        User user = admin.users.get(username);
+        if (user != null) {
             return "The username " + user.getUsername() + " is already taken.";
         } else {
             User newUser;
             if (type.equals("artist")) {
                 newUser = new Artist(username, age, city, type);
-                artists.add(new Artist(username, age, city, type));
+                admin.artists.add(new Artist(username, age, city, type));
             } else {
                 newUser = new User(username, age, city, type);
             }
 
-            users.add(newUser);
+            admin.users.put(username, newUser);
+            admin.onlineUsers.register(newUser);
+            admin.playlistRanking.addOwner(username);
+            if (admin.journal != null) {
+                admin.journal.addUser(newUser);
+            }
             return "The username "
                     + newUser.getUsername()
                     + " has been added successfully.";
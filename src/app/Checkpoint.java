@@ -0,0 +1,88 @@
+package app;
+
+import lombok.Getter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A snapshot of the calling thread's engine, taken between two commands of a
+ * command log. The whole {@link Admin} object graph is written with Java
+ * serialization, which keeps shared references, so users, playlists, players,
+ * search results and the indexes over them come back exactly as they were.
+ * Restoring a checkpoint and running the rest of the log gives the same results
+ * as running the log from the start.
+ * <p>
+ * When a {@link Journal} is attached, its pending records are committed first
+ * and the checkpoint keeps the journal position, so recovery only replays the
+ * records written after it.
+ */
+@Getter
+public final class Checkpoint {
+    private static final int MAGIC = 0x434B5054;
+    private static final int VERSION = 4;
+
+    private final long commands;
+    private final long outputs;
+    private final long journalPosition;
+
+    private Checkpoint(final long commands, final long outputs, final long journalPosition) {
+        this.commands = commands;
+        this.outputs = outputs;
+        this.journalPosition = journalPosition;
+    }
+
+    /**
+     * Saves the calling thread's engine.
+     *
+     * @param path     The file to write.
+     * @param commands The number of commands of the log already run.
+     * @param outputs  The number of results these commands produced.
+     * @throws IOException in case of exceptions to writing
+     */
+    public static void save(final Path path, final long commands, final long outputs)
+            throws IOException {
+        Journal journal = Admin.getJournal();
+        long journalPosition = 0;
+        if (journal != null) {
+            journal.sync();
+            journalPosition = journal.position();
+        }
+        try (ObjectOutputStream out = new ObjectOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(commands);
+            out.writeLong(outputs);
+            out.writeLong(journalPosition);
+            out.writeObject(Admin.getInstance());
+        }
+    }
+
+    /**
+     * Replaces the calling thread's engine with a saved one.
+     *
+     * @param path The file written by {@link #save}.
+     * @return Where in the command log the checkpoint was taken.
+     * @throws IOException if the file cannot be read or is not a checkpoint
+     */
+    public static Checkpoint restore(final Path path) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(
+                new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a checkpoint of version " + VERSION + ": " + path);
+            }
+            Checkpoint checkpoint = new Checkpoint(in.readLong(), in.readLong(), in.readLong());
+            Admin.restore((Admin) in.readObject());
+            return checkpoint;
+        } catch (ClassNotFoundException | InvalidClassException e) {
+            throw new IOException("Checkpoint from another version of the engine: " + path, e);
+        }
+    }
+}
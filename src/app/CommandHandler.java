@@ -0,0 +1,18 @@
+package app;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fileio.input.CommandInput;
+
+/**
+ * Runs one command and builds its output node.
+ */
+@FunctionalInterface
+public interface CommandHandler {
+    /**
+     * Handles the given command.
+     *
+     * @param commandInput The command to run.
+     * @return The output of the command.
+     */
+    ObjectNode handle(CommandInput commandInput);
+}
@@ -0,0 +1,193 @@
+package app;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fileio.input.CommandInput;
+import lombok.Getter;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Maps command names to their handlers. Every dispatch is counted and timed
+ * per command, and unknown commands are counted by name and reported with the
+ * profile. Adding a command only takes a new {@link #register} line here.
+ */
+public final class CommandRegistry {
+    /** The system property that asks the runners to print the profile at the end of a run. */
+    public static final String PROFILE_PROPERTY = "commands.profile";
+
+    private static final Map<String, RegisteredCommand> COMMANDS = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> UNKNOWN = new ConcurrentHashMap<>();
+    private static final double NANOS_PER_MICRO = 1e3;
+    private static final double MEDIAN = 0.5;
+    private static final double TAIL = 0.99;
+
+    static {
+        register("search", CommandRunner::search);
+        register("select", CommandRunner::select);
+        register("load", CommandRunner::load);
+        register("playPause", CommandRunner::playPause);
+        register("repeat", CommandRunner::repeat);
+        register("shuffle", CommandRunner::shuffle);
+        register("forward", CommandRunner::forward);
+        register("backward", CommandRunner::backward);
+        register("like", CommandRunner::like);
+        register("next", CommandRunner::next);
+        register("prev", CommandRunner::prev);
+        register("createPlaylist", CommandRunner::createPlaylist);
+        register("addRemoveInPlaylist", CommandRunner::addRemoveInPlaylist);
+        register("switchVisibility", CommandRunner::switchVisibility);
+        register("showPlaylists", CommandRunner::showPlaylists);
+        register("follow", CommandRunner::follow);
+        register("status", CommandRunner::status);
+        register("showPreferredSongs", CommandRunner::showLikedSongs);
+        register("getPreferredGenre", CommandRunner::getPreferredGenre);
+        register("getTop5Songs", CommandRunner::getTop5Songs);
+        register("getTop5Playlists", CommandRunner::getTop5Playlists);
+        register("switchConnectionStatus", CommandRunner::switchConnectionStatus);
+        register("getOnlineUsers", CommandRunner::getOnlineUsers);
+        register("addUser", CommandRunner::addUsers);
+        register("addAlbum", CommandRunner::addAlbums);
+        register("showAlbums", CommandRunner::showAlbums);
+        register("printCurrentPage", CommandRunner::printCurrentPage);
+        register("addEvent", CommandRunner::addEvent);
+        register("addMerch", CommandRunner::addMerch);
+    }
+
+    private CommandRegistry() {
+    }
+
+    private static void register(final String name, final CommandHandler handler) {
+        COMMANDS.put(name, new RegisteredCommand(name, handler));
+    }
+
+    /**
+     * Looks up the handler of a command.
+     *
+     * @param name The command name.
+     * @return The registered command, or {@code null} if the name is unknown.
+     */
+    public static RegisteredCommand resolve(final String name) {
+        return name == null ? null : COMMANDS.get(name);
+    }
+
+    /**
+     * Runs a command through its handler.
+     *
+     * @param commandInput The command to run.
+     * @return The output of the command, or {@code null} for an unknown command,
+     * which is counted in {@link #getUnknownCommands()}.
+     */
+    public static ObjectNode dispatch(final CommandInput commandInput) {
+        RegisteredCommand command = resolve(commandInput.getCommand());
+        if (command == null) {
+            UNKNOWN.computeIfAbsent(String.valueOf(commandInput.getCommand()),
+                    name -> new LongAdder()).increment();
+            return null;
+        }
+        return command.run(commandInput);
+    }
+
+    /**
+     * Returns the unknown commands dispatched so far.
+     *
+     * @return The number of times each unknown command name was dispatched,
+     * sorted by name.
+     */
+    public static Map<String, Long> getUnknownCommands() {
+        Map<String, Long> unknown = new TreeMap<>();
+        UNKNOWN.forEach((name, count) -> unknown.put(name, count.sum()));
+        return unknown;
+    }
+
+    /**
+     * Prints the profile if it was asked for with the {@value #PROFILE_PROPERTY}
+     * system property.
+     *
+     * @param out The stream to print to.
+     */
+    public static void printProfileIfRequested(final PrintStream out) {
+        if (Boolean.getBoolean(PROFILE_PROPERTY)) {
+            printProfile(out);
+        }
+    }
+
+    /**
+     * Prints the invocation count and latency of every command that ran,
+     * followed by the unknown commands that were skipped.
+     *
+     * @param out The stream to print to.
+     */
+    public static void printProfile(final PrintStream out) {
+        out.printf("%-24s %10s %12s %12s %12s%n",
+                "command", "calls", "mean (us)", "p50 (us)", "p99 (us)");
+        for (RegisteredCommand command : new TreeMap<>(COMMANDS).values()) {
+            long calls = command.getInvocations().sum();
+            if (calls == 0) {
+                continue;
+            }
+            out.printf("%-24s %10d %12.1f %12.1f %12.1f%n", command.getName(), calls,
+                    command.getTotalNanos().sum() / NANOS_PER_MICRO / calls,
+                    command.percentile(MEDIAN) / NANOS_PER_MICRO,
+                    command.percentile(TAIL) / NANOS_PER_MICRO);
+        }
+        for (Map.Entry<String, Long> unknown : getUnknownCommands().entrySet()) {
+            out.printf("Invalid command %s (%d times)%n", unknown.getKey(), unknown.getValue());
+        }
+    }
+
+    /**
+     * A command handler together with its invocation counter and a latency
+     * histogram with one bucket per power of two nanoseconds.
+     */
+    @Getter
+    public static final class RegisteredCommand {
+        private static final int BUCKETS = Long.SIZE + 1;
+
+        private final String name;
+        private final CommandHandler handler;
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLongArray latencies = new AtomicLongArray(BUCKETS);
+
+        private RegisteredCommand(final String name, final CommandHandler handler) {
+            this.name = name;
+            this.handler = handler;
+        }
+
+        private ObjectNode run(final CommandInput commandInput) {
+            long start = System.nanoTime();
+            try {
+                return handler.handle(commandInput);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                invocations.increment();
+                totalNanos.add(elapsed);
+                latencies.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(elapsed));
+            }
+        }
+
+        /**
+         * Estimates a latency percentile as the upper bound of the histogram
+         * bucket it falls in.
+         *
+         * @param fraction The percentile, between 0 and 1.
+         * @return The estimated latency, in nanoseconds.
+         */
+        public long percentile(final double fraction) {
+            long target = (long) Math.ceil(invocations.sum() * fraction);
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                seen += latencies.get(bucket);
+                if (seen >= target && seen > 0) {
+                    return bucket >= Long.SIZE - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+}
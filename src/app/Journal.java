@@ -0,0 +1,560 @@
+package app;
+
+import app.audio.Collections.Playlist;
+import app.audio.Files.Song;
+import app.user.Artist;
+import app.user.User;
+import fileio.input.CommandInput;
+import fileio.input.SongInput;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the changes made by the mutating commands, written
+ * where each change takes effect, so commands that fail or only read write
+ * nothing. A record holds the change itself (the liked song, the followed
+ * playlist) rather than the command, since the command depends on player and
+ * search state that is not journaled.
+ * <p>
+ * Records are framed as {@code length crc32 payload} and committed in groups:
+ * they are buffered and written with a single {@code force} once
+ * {@code groupSize} of them are pending, once the oldest of them has waited
+ * {@code maxDelayMillis} (checked as records are added and on
+ * {@link #syncIfDue()}, which the command loop calls after every command), or on
+ * {@link #sync()}. A crash loses at most the records of the last uncommitted
+ * group, and a torn record at the end of the file is dropped when the journal
+ * is read back.
+ */
+public final class Journal implements Closeable {
+    /** The number of records committed together by default. */
+    public static final int DEFAULT_GROUP_SIZE = 64;
+    /** The longest a record waits to be committed by default. */
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 10;
+
+    private static final int FRAME_BYTES = 2 * Integer.BYTES;
+
+    private static final byte LIKE = 1;
+    private static final byte FOLLOW = 2;
+    private static final byte CREATE_PLAYLIST = 3;
+    private static final byte ADD_REMOVE_IN_PLAYLIST = 4;
+    private static final byte SWITCH_VISIBILITY = 5;
+    private static final byte ADD_USER = 6;
+    private static final byte ADD_ALBUM = 7;
+    private static final byte ADD_EVENT = 8;
+    private static final byte ADD_MERCH = 9;
+    private static final byte SWITCH_CONNECTION_STATUS = 10;
+
+    private final FileChannel channel;
+    private final int groupSize;
+    private final long maxDelayNanos;
+    private final ByteArrayOutputStream group = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    private final DataOutputStream record = new DataOutputStream(payload);
+    private final CRC32 crc = new CRC32();
+    private int pending;
+    private long firstPendingNanos;
+    private long position;
+
+    private Journal(final FileChannel channel, final int groupSize, final long maxDelayMillis,
+                    final long position) {
+        this.channel = channel;
+        this.groupSize = groupSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.position = position;
+    }
+
+    /**
+     * Creates an empty journal, dropping the records of a journal already at the path.
+     *
+     * @param path The journal file.
+     * @return The journal.
+     * @throws IOException in case of exceptions to writing
+     */
+    public static Journal create(final Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        return new Journal(channel, DEFAULT_GROUP_SIZE, DEFAULT_MAX_DELAY_MILLIS, 0);
+    }
+
+    /**
+     * Opens a journal for appending, creating it if needed and dropping a torn
+     * record left at its end.
+     *
+     * @param path The journal file.
+     * @return The journal.
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static Journal open(final Path path) throws IOException {
+        return open(path, DEFAULT_GROUP_SIZE, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    /**
+     * Opens a journal for appending, creating it if needed and dropping a torn
+     * record left at its end.
+     *
+     * @param path           The journal file.
+     * @param groupSize      The number of records committed with one {@code force}.
+     * @param maxDelayMillis The longest a record waits to be committed.
+     * @return The journal.
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static Journal open(final Path path, final int groupSize,
+                               final long maxDelayMillis) throws IOException {
+        long end = Files.exists(path) ? read(path, 0, false) : 0;
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.truncate(end);
+        return new Journal(channel, groupSize, maxDelayMillis, end);
+    }
+
+    /**
+     * Applies the records of a journal to the calling thread's engine.
+     *
+     * @param path The journal file.
+     * @param from The position of the first record to apply.
+     * @return The position after the last complete record.
+     * @throws IOException in case of exceptions to reading
+     */
+    public static long replay(final Path path, final long from) throws IOException {
+        if (!Files.exists(path)) {
+            return from;
+        }
+        // the changes are applied through the same operations, which must not journal them again
+        Journal journal = Admin.getJournal();
+        Admin.setJournal(null);
+        try {
+            return read(path, from, true);
+        } finally {
+            Admin.setJournal(journal);
+        }
+    }
+
+    /**
+     * Returns the end of the committed records.
+     *
+     * @return The position the next committed record starts at.
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Records a song liked or unliked by a user.
+     *
+     * @param user The user.
+     * @param song The song.
+     */
+    public void like(final User user, final Song song) {
+        append(out -> {
+            out.writeByte(LIKE);
+            out.writeUTF(user.getUsername());
+            out.writeInt(song.getRow());
+        });
+    }
+
+    /**
+     * Records a playlist followed or unfollowed by a user.
+     *
+     * @param user     The user.
+     * @param playlist The playlist.
+     */
+    public void follow(final User user, final Playlist playlist) {
+        append(out -> {
+            out.writeByte(FOLLOW);
+            out.writeUTF(user.getUsername());
+            out.writeUTF(playlist.getOwner());
+            out.writeInt(Admin.getUser(playlist.getOwner()).getPlaylists().indexOf(playlist));
+        });
+    }
+
+    /**
+     * Records a playlist created by a user.
+     *
+     * @param user      The user.
+     * @param name      The playlist name.
+     * @param timestamp The creation time.
+     */
+    public void createPlaylist(final User user, final String name, final int timestamp) {
+        append(out -> {
+            out.writeByte(CREATE_PLAYLIST);
+            out.writeUTF(user.getUsername());
+            out.writeUTF(name);
+            out.writeInt(timestamp);
+        });
+    }
+
+    /**
+     * Records a song added to or removed from one of a user's playlists.
+     *
+     * @param user       The user.
+     * @param playlistId The playlist id, counted from 1.
+     * @param song       The song.
+     */
+    public void addRemoveInPlaylist(final User user, final int playlistId, final Song song) {
+        append(out -> {
+            out.writeByte(ADD_REMOVE_IN_PLAYLIST);
+            out.writeUTF(user.getUsername());
+            out.writeInt(playlistId);
+            out.writeInt(song.getRow());
+        });
+    }
+
+    /**
+     * Records the visibility switch of one of a user's playlists.
+     *
+     * @param user       The user.
+     * @param playlistId The playlist id, counted from 1.
+     */
+    public void switchVisibility(final User user, final int playlistId) {
+        append(out -> {
+            out.writeByte(SWITCH_VISIBILITY);
+            out.writeUTF(user.getUsername());
+            out.writeInt(playlistId);
+        });
+    }
+
+    /**
+     * Records a user going online or offline.
+     *
+     * @param user The user, already holding its new status.
+     */
+    public void switchConnectionStatus(final User user) {
+        append(out -> {
+            out.writeByte(SWITCH_CONNECTION_STATUS);
+            out.writeUTF(user.getUsername());
+            out.writeBoolean(user.isStatus());
+        });
+    }
+
+    /**
+     * Records a new user.
+     *
+     * @param user The user.
+     */
+    public void addUser(final User user) {
+        append(out -> {
+            out.writeByte(ADD_USER);
+            out.writeUTF(user.getUsername());
+            out.writeInt(user.getAge());
+            writeOptional(out, user.getCity());
+            writeOptional(out, user.getType());
+        });
+    }
+
+    /**
+     * Records a new album.
+     *
+     * @param commandInput The addAlbum command that added it.
+     */
+    public void addAlbum(final CommandInput commandInput) {
+        append(out -> {
+            out.writeByte(ADD_ALBUM);
+            out.writeUTF(commandInput.getUsername());
+            out.writeUTF(commandInput.getName());
+            writeOptional(out, commandInput.getDescription());
+            writeOptional(out, commandInput.getReleaseYear());
+            out.writeInt(commandInput.getSongs().size());
+            for (SongInput song : commandInput.getSongs()) {
+                out.writeUTF(song.getName());
+                writeOptional(out, song.getDuration());
+                writeOptional(out, song.getAlbum());
+                out.writeInt(song.getTags() == null ? -1 : song.getTags().size());
+                if (song.getTags() != null) {
+                    for (String tag : song.getTags()) {
+                        out.writeUTF(tag);
+                    }
+                }
+                writeOptional(out, song.getLyrics());
+                writeOptional(out, song.getGenre());
+                writeOptional(out, song.getReleaseYear());
+                writeOptional(out, song.getArtist());
+            }
+        });
+    }
+
+    /**
+     * Records a new event.
+     *
+     * @param commandInput The addEvent command that added it.
+     */
+    public void addEvent(final CommandInput commandInput) {
+        append(out -> {
+            out.writeByte(ADD_EVENT);
+            out.writeUTF(commandInput.getUsername());
+            out.writeUTF(commandInput.getName());
+            writeOptional(out, commandInput.getDescription());
+            writeOptional(out, commandInput.getDate());
+        });
+    }
+
+    /**
+     * Records a new merchandise item.
+     *
+     * @param commandInput The addMerch command that added it.
+     */
+    public void addMerch(final CommandInput commandInput) {
+        append(out -> {
+            out.writeByte(ADD_MERCH);
+            out.writeUTF(commandInput.getUsername());
+            out.writeUTF(commandInput.getName());
+            writeOptional(out, commandInput.getDescription());
+            writeOptional(out, commandInput.getPrice());
+        });
+    }
+
+    /**
+     * Commits the pending records if the oldest of them has waited long enough.
+     */
+    public void syncIfDue() {
+        if (pending > 0 && System.nanoTime() - firstPendingNanos >= maxDelayNanos) {
+            sync();
+        }
+    }
+
+    /**
+     * Writes and forces the pending records.
+     */
+    public void sync() {
+        if (pending == 0) {
+            return;
+        }
+        try {
+            ByteBuffer bytes = ByteBuffer.wrap(group.toByteArray());
+            while (bytes.hasRemaining()) {
+                position += channel.write(bytes, position);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        group.reset();
+        pending = 0;
+    }
+
+    /**
+     * Commits the pending records and closes the journal.
+     *
+     * @throws IOException in case of exceptions to writing
+     */
+    @Override
+    public void close() throws IOException {
+        sync();
+        channel.close();
+    }
+
+    /**
+     * Writes a string that may be null or longer than {@code writeUTF} allows, like lyrics.
+     */
+    private static void writeOptional(final DataOutputStream out, final String value)
+            throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Writes a number that may be null, preceded by whether it is there.
+     */
+    private static void writeOptional(final DataOutputStream out, final Integer value)
+            throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    /**
+     * Writes a record and adds it, framed, to the pending group. A record that
+     * fails part way through is dropped whole, leaving the buffer empty for the next.
+     */
+    private void append(final RecordWriter writer) {
+        byte[] bytes;
+        try {
+            writer.write(record);
+            bytes = payload.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            payload.reset();
+        }
+        crc.reset();
+        crc.update(bytes);
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_BYTES);
+        frame.putInt(bytes.length).putInt((int) crc.getValue());
+        group.writeBytes(frame.array());
+        group.writeBytes(bytes);
+        if (pending++ == 0) {
+            firstPendingNanos = System.nanoTime();
+        }
+        if (pending >= groupSize) {
+            sync();
+        } else {
+            syncIfDue();
+        }
+    }
+
+    /**
+     * Reads the complete records of a journal from a position on, optionally
+     * applying them.
+     *
+     * @return The position after the last complete record.
+     */
+    private static long read(final Path path, final long from, final boolean apply)
+            throws IOException {
+        long position = from;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer frame = ByteBuffer.allocate(FRAME_BYTES);
+            CRC32 check = new CRC32();
+            while (true) {
+                frame.clear();
+                if (!readFully(channel, frame, position)) {
+                    return position;
+                }
+                int length = frame.getInt(0);
+                if (length <= 0 || length > channel.size() - position - FRAME_BYTES) {
+                    return position;
+                }
+                ByteBuffer bytes = ByteBuffer.allocate(length);
+                if (!readFully(channel, bytes, position + FRAME_BYTES)) {
+                    return position;
+                }
+                check.reset();
+                check.update(bytes.array());
+                if ((int) check.getValue() != frame.getInt(Integer.BYTES)) {
+                    return position;
+                }
+                if (apply) {
+                    apply(new DataInputStream(new ByteArrayInputStream(bytes.array())));
+                }
+                position += FRAME_BYTES + length;
+            }
+        }
+    }
+
+    private static boolean readFully(final FileChannel channel, final ByteBuffer buffer,
+                                     final long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void apply(final DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        if (type == ADD_USER) {
+            Admin.addUser(in.readUTF(), in.readInt(), readOptional(in), readOptional(in));
+            return;
+        }
+
+        User user = Admin.getUser(in.readUTF());
+        switch (type) {
+            case LIKE -> user.toggleLike(Admin.getSongStore().get(in.readInt()));
+            case FOLLOW -> {
+                User owner = Admin.getUser(in.readUTF());
+                user.toggleFollow(owner.getPlaylists().get(in.readInt()));
+            }
+            case CREATE_PLAYLIST -> user.createPlaylist(in.readUTF(), in.readInt());
+            case ADD_REMOVE_IN_PLAYLIST -> {
+                int playlistId = in.readInt();
+                user.toggleInPlaylist(playlistId, Admin.getSongStore().get(in.readInt()));
+            }
+            case SWITCH_VISIBILITY -> user.switchPlaylistVisibility(in.readInt());
+            case SWITCH_CONNECTION_STATUS -> {
+                if (user.isStatus() != in.readBoolean()) {
+                    user.switchConnectionStatus();
+                }
+            }
+            case ADD_ALBUM -> ((Artist) user).addAlbum(readAlbum(in, user));
+            case ADD_EVENT -> {
+                CommandInput commandInput = command(user, in.readUTF(), readOptional(in));
+                commandInput.setDate(readOptional(in));
+                ((Artist) user).addEvent(commandInput);
+            }
+            case ADD_MERCH -> {
+                CommandInput commandInput = command(user, in.readUTF(), readOptional(in));
+                commandInput.setPrice(readOptionalInt(in));
+                ((Artist) user).addMerch(commandInput);
+            }
+            default -> throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    private static CommandInput readAlbum(final DataInputStream in, final User user)
+            throws IOException {
+        CommandInput commandInput = command(user, in.readUTF(), readOptional(in));
+        commandInput.setReleaseYear(readOptionalInt(in));
+        int songCount = in.readInt();
+        ArrayList<SongInput> songs = new ArrayList<>(songCount);
+        for (int i = 0; i < songCount; i++) {
+            SongInput song = new SongInput();
+            song.setName(in.readUTF());
+            song.setDuration(readOptionalInt(in));
+            song.setAlbum(readOptional(in));
+            int tagCount = in.readInt();
+            if (tagCount >= 0) {
+                ArrayList<String> tags = new ArrayList<>(tagCount);
+                for (int j = 0; j < tagCount; j++) {
+                    tags.add(in.readUTF());
+                }
+                song.setTags(tags);
+            }
+            song.setLyrics(readOptional(in));
+            song.setGenre(readOptional(in));
+            song.setReleaseYear(readOptionalInt(in));
+            song.setArtist(readOptional(in));
+            songs.add(song);
+        }
+        commandInput.setSongs(songs);
+        return commandInput;
+    }
+
+    private static CommandInput command(final User user, final String name,
+                                        final String description) {
+        CommandInput commandInput = new CommandInput();
+        commandInput.setUsername(user.getUsername());
+        commandInput.setName(name);
+        commandInput.setDescription(description);
+        return commandInput;
+    }
+
+    private static String readOptional(final DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static Integer readOptionalInt(final DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    /**
+     * Writes the fields of one record.
+     */
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -6,6 +6,7 @@ import fileio.input.SongInput;
 import java.util.ArrayList;
 
 public final class Album extends AudioCollection {
+    private static final long serialVersionUID = 1L;
     private ArrayList<SongInput> songs;
 
     public ArrayList<SongInput> getSongs() {
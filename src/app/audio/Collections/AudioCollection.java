@@ -6,6 +6,7 @@ import lombok.Getter;
 
 @Getter
 public abstract class AudioCollection extends LibraryEntry {
+    private static final long serialVersionUID = 1L;
     private final String owner;
 
     public AudioCollection(final String name, final String owner) {
@@ -27,6 +28,15 @@ public abstract class AudioCollection extends LibraryEntry {
      * @return The audio file at the specified index.
      */
     public abstract AudioFile getTrackByIndex(int index);
+    /**
+     * Gets a counter that changes whenever the tracks of the collection change,
+     * so data derived from the track list can be cached.
+     *
+     * @return The revision of the track list.
+     */
+    public int getRevision() {
+        return 0;
+    }
     /**
      * Checks if the owner of the audio collection matches the given user.
      *
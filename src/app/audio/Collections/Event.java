@@ -4,6 +4,7 @@ import app.audio.Files.AudioFile;
 import lombok.Getter;
 
 public final class Event extends AudioCollection {
+    private static final long serialVersionUID = 1L;
     private String name;
     @Getter
     private String description;
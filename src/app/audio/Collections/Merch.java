@@ -5,6 +5,8 @@ import lombok.Getter;
 import lombok.Setter;
 
 public final class Merch extends AudioCollection{
+    private static final long serialVersionUID = 1L;
+
     @Getter
     @Setter
     private Integer price;
@@ -0,0 +1,178 @@
+package app.audio.Collections;
+
+import app.audio.Files.Song;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * The songs of a playlist, in insertion order, each present at most once.
+ * Songs live in slots that are only ever appended to; a removed song leaves an
+ * empty slot behind, and a Fenwick tree over the occupied slots turns a track
+ * index into its slot. Membership is a hash lookup, so contains and remove are
+ * O(1), indexed access is O(log n), and the slots are compacted once more than
+ * half of them are empty.
+ */
+final class OrderedSongSet extends AbstractList<Song> implements RandomAccess, Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<Song, Integer> slotOf = new HashMap<>();
+    private Song[] slots = new Song[INITIAL_CAPACITY];
+    // tree[i] counts the occupied slots in (i - lowbit(i), i], one-based
+    private int[] tree = new int[INITIAL_CAPACITY + 1];
+    private int used;
+
+    @Override
+    public int size() {
+        return slotOf.size();
+    }
+
+    @Override
+    public boolean contains(final Object song) {
+        return slotOf.containsKey(song);
+    }
+
+    @Override
+    public Song get(final int index) {
+        return slots[slotAt(index)];
+    }
+
+    /**
+     * Appends a song, unless it is already in the set.
+     *
+     * @param song The song to add.
+     * @return {@code true} if the song was added.
+     */
+    @Override
+    public boolean add(final Song song) {
+        if (slotOf.containsKey(song)) {
+            return false;
+        }
+        if (used == slots.length) {
+            compact(Math.max(INITIAL_CAPACITY, 2 * size()));
+        }
+        slots[used] = song;
+        slotOf.put(song, used);
+        update(used, 1);
+        used++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(final Object song) {
+        Integer slot = slotOf.remove(song);
+        if (slot == null) {
+            return false;
+        }
+        clear(slot);
+        return true;
+    }
+
+    @Override
+    public Song remove(final int index) {
+        int slot = slotAt(index);
+        Song song = slots[slot];
+        slotOf.remove(song);
+        clear(slot);
+        return song;
+    }
+
+    @Override
+    public Iterator<Song> iterator() {
+        return new Iterator<>() {
+            private int slot = nextOccupied(0);
+
+            @Override
+            public boolean hasNext() {
+                return slot < used;
+            }
+
+            @Override
+            public Song next() {
+                if (slot >= used) {
+                    throw new NoSuchElementException();
+                }
+                Song song = slots[slot];
+                slot = nextOccupied(slot + 1);
+                return song;
+            }
+        };
+    }
+
+    private int nextOccupied(final int from) {
+        int slot = from;
+        while (slot < used && slots[slot] == null) {
+            slot++;
+        }
+        return slot;
+    }
+
+    private void clear(final int slot) {
+        slots[slot] = null;
+        update(slot, -1);
+        if (used > INITIAL_CAPACITY && 2 * size() < used) {
+            compact(slots.length);
+        }
+    }
+
+    /**
+     * Finds the slot of the song at a track index, walking down the Fenwick tree.
+     */
+    private int slotAt(final int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        int remaining = index + 1;
+        int position = 0;
+        for (int step = Integer.highestOneBit(slots.length); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= slots.length && tree[next] < remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return position;
+    }
+
+    private void update(final int slot, final int delta) {
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Moves the songs to the front of a fresh slot array, in order, and rebuilds
+     * the slot map and the tree.
+     */
+    private void compact(final int capacity) {
+        Song[] packed = new Song[capacity];
+        int count = 0;
+        for (int slot = 0; slot < used; slot++) {
+            if (slots[slot] != null) {
+                packed[count] = slots[slot];
+                slotOf.put(slots[slot], count);
+                count++;
+            }
+        }
+
+        int[] packedTree = new int[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            if (i <= count) {
+                packedTree[i]++;
+            }
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                packedTree[parent] += packedTree[i];
+            }
+        }
+        slots = packed;
+        tree = packedTree;
+        used = count;
+    }
+}
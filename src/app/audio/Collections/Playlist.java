@@ -2,17 +2,32 @@ package app.audio.Collections;
 
 import app.audio.Files.AudioFile;
 import app.audio.Files.Song;
+import app.searchBar.NumberRange;
 import app.utils.Enums;
+import lombok.AccessLevel;
 import lombok.Getter;
 
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 @Getter
 public final class Playlist extends AudioCollection {
-    private final ArrayList<Song> songs;
+    private static final long serialVersionUID = 1L;
+
+    @Getter(AccessLevel.NONE)
+    private final OrderedSongSet songs;
     private Enums.Visibility visibility;
     private Integer followers;
     private int timestamp;
+    private int revision;
+    @Getter(AccessLevel.NONE)
+    private PlaylistRanking ranking;
+    @Getter(AccessLevel.NONE)
+    private PlaylistIndex index;
+    @Getter(AccessLevel.NONE)
+    private int ownerOrder;
+    @Getter(AccessLevel.NONE)
+    private int creationOrder;
 
     public Playlist(final String name, final String owner) {
         this(name, owner, 0);
@@ -20,12 +35,20 @@ public final class Playlist extends AudioCollection {
 
     public Playlist(final String name, final String owner, final int timestamp) {
         super(name, owner);
-        this.songs = new ArrayList<>();
+        this.songs = new OrderedSongSet();
         this.visibility = Enums.Visibility.PUBLIC;
         this.followers = 0;
         this.timestamp = timestamp;
     }
 
+    /**
+     * Gets the songs of the playlist, in the order they were added.
+     *
+     * @return A read-only view of the songs.
+     */
+    public List<Song> getSongs() {
+        return Collections.unmodifiableList(songs);
+    }
     /**
      * Checks if the playlist contains the specified song.
      *
@@ -36,12 +59,14 @@ public final class Playlist extends AudioCollection {
         return songs.contains(song);
     }
     /**
-     * Adds the given song to the playlist.
+     * Adds the given song to the playlist, unless it is already there.
      *
      * @param song The song to add.
      */
     public void addSong(final Song song) {
-        songs.add(song);
+        if (songs.add(song)) {
+            revision++;
+        }
     }
     /**
      * Removes the specified song from the playlist.
@@ -49,7 +74,9 @@ public final class Playlist extends AudioCollection {
      * @param song The song to remove.
      */
     public void removeSong(final Song song) {
-        songs.remove(song);
+        if (songs.remove(song)) {
+            revision++;
+        }
     }
     /**
      * Removes the song at the specified index from the playlist.
@@ -58,6 +85,7 @@ public final class Playlist extends AudioCollection {
      */
     public void removeSong(final int index) {
         songs.remove(index);
+        revision++;
     }
 
     /**
@@ -65,23 +93,67 @@ public final class Playlist extends AudioCollection {
      * If the playlist is currently public, it becomes private, and vice versa.
      */
     public void switchVisibility() {
+        if (index != null) {
+            index.remove(this);
+        }
         if (visibility == Enums.Visibility.PUBLIC) {
             visibility = Enums.Visibility.PRIVATE;
         } else {
             visibility = Enums.Visibility.PUBLIC;
         }
+        if (index != null) {
+            index.insert(this);
+        }
     }
     /**
      * Increases the number of followers for the playlist by one.
      */
     public void increaseFollowers() {
-        followers++;
+        changeFollowers(1);
     }
     /**
      * Decreases the number of followers for the playlist by one.
      */
     public void decreaseFollowers() {
-        followers--;
+        changeFollowers(-1);
+    }
+    /**
+     * Applies a follower count change, repositioning the playlist in its ranking
+     * and its index if it has them.
+     *
+     * @param delta The change in followers.
+     */
+    private void changeFollowers(final int delta) {
+        if (ranking != null) {
+            ranking.remove(this);
+        }
+        int previousFollowers = followers;
+        followers += delta;
+        if (ranking != null) {
+            ranking.reinsert(this);
+        }
+        if (index != null) {
+            index.moveFollowers(this, previousFollowers);
+        }
+    }
+
+    int getOwnerOrder() {
+        return ownerOrder;
+    }
+
+    int getCreationOrder() {
+        return creationOrder;
+    }
+
+    void attach(final PlaylistRanking playlistRanking,
+                final int owner, final int creation) {
+        this.ranking = playlistRanking;
+        this.ownerOrder = owner;
+        this.creationOrder = creation;
+    }
+
+    void attachIndex(final PlaylistIndex playlistIndex) {
+        this.index = playlistIndex;
     }
     /**
      * Returns the total number of tracks in the playlist.
@@ -125,22 +197,6 @@ public final class Playlist extends AudioCollection {
      */
     @Override
     public boolean matchesFollowers(final String followersMatched) {
-        return filterByFollowersCount(this.getFollowers(), followersMatched);
-    }
-    /**
-     * Helper method to filter a count based on a query ("<", ">", or "=" followed by a number).
-     *
-     * @param count The count to filter.
-     * @param query The query for filtering ("<", ">", or "=" followed by a number).
-     * @return {@code true} if the count matches the query, {@code false} otherwise.
-     */
-    private static boolean filterByFollowersCount(final int count, final String query) {
-        if (query.startsWith("<")) {
-            return count < Integer.parseInt(query.substring(1));
-        } else if (query.startsWith(">")) {
-            return count > Integer.parseInt(query.substring(1));
-        } else {
-            return count == Integer.parseInt(query);
-        }
+        return NumberRange.parse(followersMatched).contains(this.getFollowers());
     }
 }
@@ -0,0 +1,251 @@
+package app.audio.Collections;
+
+import app.searchBar.NumberRange;
+import app.utils.Enums;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Index of the playlists a search can return. Public playlists are shared by
+ * every user and indexed by owner, by lower-cased name and by follower count,
+ * so a follower range is a contiguous slice of the index; private ones are
+ * kept per owner, since only their owner can find them. A search walks the
+ * public playlists merged with the searching user's private ones, in the order
+ * the admin lists all playlists: user by user, and by creation within a user.
+ * {@link Playlist#switchVisibility()} moves a playlist between the two sides,
+ * and a follower count change only moves it within the follower index.
+ */
+public final class PlaylistIndex implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // past this many public playlists, a name or follower range is too broad to be worth sorting
+    private static final int RANGE_LIMIT = 64;
+    private static final Comparator<Playlist> LISTING =
+            (Comparator<Playlist> & Serializable) (a, b) -> {
+                int order = Integer.compare(a.getOwnerOrder(), b.getOwnerOrder());
+                return order != 0 ? order
+                        : Integer.compare(a.getCreationOrder(), b.getCreationOrder());
+            };
+
+    private final NavigableSet<Playlist> publicPlaylists = new TreeSet<>(LISTING);
+    private final NavigableMap<String, NavigableSet<Playlist>> publicNames = new TreeMap<>();
+    private final NavigableMap<Integer, NavigableSet<Playlist>> publicFollowers =
+            new TreeMap<>();
+    private final Map<String, NavigableSet<Playlist>> publicOwners = new HashMap<>();
+    private final Map<String, NavigableSet<Playlist>> privateOwners = new HashMap<>();
+
+    /**
+     * Indexes a newly created playlist. It must already be in the
+     * {@link PlaylistRanking}, which gives it its place in the listing order.
+     *
+     * @param playlist The playlist to index.
+     */
+    public void add(final Playlist playlist) {
+        playlist.attachIndex(this);
+        insert(playlist);
+    }
+
+    /**
+     * Removes a playlist whose visibility is about to change.
+     *
+     * @param playlist The playlist to remove.
+     */
+    void remove(final Playlist playlist) {
+        if (playlist.getVisibility() == Enums.Visibility.PUBLIC) {
+            publicPlaylists.remove(playlist);
+            removeFrom(publicNames, playlist.getName().toLowerCase(), playlist);
+            removeFrom(publicFollowers, playlist.getFollowers(), playlist);
+            removeFrom(publicOwners, playlist.getOwner(), playlist);
+        } else {
+            removeFrom(privateOwners, playlist.getOwner(), playlist);
+        }
+    }
+
+    /**
+     * Puts back a playlist removed with {@link #remove(Playlist)}, on the side of
+     * its new visibility.
+     *
+     * @param playlist The playlist to reinsert.
+     */
+    void insert(final Playlist playlist) {
+        if (playlist.getVisibility() == Enums.Visibility.PUBLIC) {
+            publicPlaylists.add(playlist);
+            addTo(publicNames, playlist.getName().toLowerCase(), playlist);
+            addTo(publicFollowers, playlist.getFollowers(), playlist);
+            addTo(publicOwners, playlist.getOwner(), playlist);
+        } else {
+            addTo(privateOwners, playlist.getOwner(), playlist);
+        }
+    }
+
+    /**
+     * Moves a playlist whose follower count changed within the follower index.
+     * The other entries do not depend on the count, so they stay in place.
+     *
+     * @param playlist          The playlist, already holding its new count.
+     * @param previousFollowers The count it was indexed under.
+     */
+    void moveFollowers(final Playlist playlist, final int previousFollowers) {
+        if (playlist.getVisibility() == Enums.Visibility.PUBLIC) {
+            removeFrom(publicFollowers, previousFollowers, playlist);
+            addTo(publicFollowers, playlist.getFollowers(), playlist);
+        }
+    }
+
+    /**
+     * Gets the playlists a user can see that may match the given filters, in
+     * listing order. Every playlist visible to the user and matching the owner,
+     * name and followers is among them; the caller still applies all of its filters.
+     *
+     * @param user      The username of the searching user.
+     * @param owner     The owner to match, or null for any.
+     * @param name      The name prefix to match, or null for any.
+     * @param followers The follower counts to match, or null for any.
+     * @return The candidate playlists, in listing order.
+     */
+    public Iterable<Playlist> candidates(final String user, final String owner,
+                                        final String name, final NumberRange followers) {
+        NavigableSet<Playlist> ownPrivate =
+                privateOwners.getOrDefault(user, Collections.emptyNavigableSet());
+        if (owner != null) {
+            NavigableSet<Playlist> ownerPublic =
+                    publicOwners.getOrDefault(owner, Collections.emptyNavigableSet());
+            return owner.equals(user) ? merge(ownerPublic, ownPrivate) : ownerPublic;
+        }
+        List<Playlist> narrowest = name == null ? null : matchPrefix(name.toLowerCase());
+        if (followers != null) {
+            List<Playlist> counted = matchFollowers(followers);
+            if (counted != null && (narrowest == null || counted.size() < narrowest.size())) {
+                narrowest = counted;
+            }
+        }
+        if (narrowest != null) {
+            narrowest.sort(LISTING);
+            return merge(narrowest, ownPrivate);
+        }
+        return merge(publicPlaylists, ownPrivate);
+    }
+
+    /**
+     * Gets the public playlists whose name starts with a prefix, unless there
+     * are more than {@link #RANGE_LIMIT}, in which case walking all the
+     * playlists in order finds the first results sooner.
+     *
+     * @return The matching playlists in no particular order, or null if there are too many.
+     */
+    private List<Playlist> matchPrefix(final String prefix) {
+        List<Playlist> matches = new ArrayList<>();
+        for (Map.Entry<String, NavigableSet<Playlist>> entry
+                : publicNames.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            if (!addLimited(matches, entry.getValue())) {
+                return null;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Gets the public playlists whose follower count is in a range, found by
+     * binary search in the follower index, unless there are more than
+     * {@link #RANGE_LIMIT}.
+     *
+     * @return The matching playlists in no particular order, or null if there are too many.
+     */
+    private List<Playlist> matchFollowers(final NumberRange range) {
+        List<Playlist> matches = new ArrayList<>();
+        if (range.isEmptyForInts()) {
+            return matches;
+        }
+        for (NavigableSet<Playlist> playlists : publicFollowers
+                .subMap(range.getIntMin(), true, range.getIntMax(), true).values()) {
+            if (!addLimited(matches, playlists)) {
+                return null;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Adds playlists to a list, unless that takes it past {@link #RANGE_LIMIT}.
+     *
+     * @return False if the list is full.
+     */
+    private static boolean addLimited(final List<Playlist> matches,
+                                      final NavigableSet<Playlist> playlists) {
+        for (Playlist playlist : playlists) {
+            if (matches.size() == RANGE_LIMIT) {
+                return false;
+            }
+            matches.add(playlist);
+        }
+        return true;
+    }
+
+    private static <K> void addTo(final Map<K, NavigableSet<Playlist>> map, final K key,
+                                  final Playlist playlist) {
+        map.computeIfAbsent(key, k -> new TreeSet<>(LISTING)).add(playlist);
+    }
+
+    private static <K> void removeFrom(final Map<K, NavigableSet<Playlist>> map, final K key,
+                                       final Playlist playlist) {
+        NavigableSet<Playlist> playlists = map.get(key);
+        playlists.remove(playlist);
+        if (playlists.isEmpty()) {
+            map.remove(key);
+        }
+    }
+
+    /**
+     * Merges two sequences of playlists, each in listing order, into one.
+     */
+    private static Iterable<Playlist> merge(final Iterable<Playlist> first,
+                                            final Iterable<Playlist> second) {
+        return () -> new Iterator<>() {
+            private final Iterator<Playlist> left = first.iterator();
+            private final Iterator<Playlist> right = second.iterator();
+            private Playlist nextLeft = advance(left);
+            private Playlist nextRight = advance(right);
+
+            @Override
+            public boolean hasNext() {
+                return nextLeft != null || nextRight != null;
+            }
+
+            @Override
+            public Playlist next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Playlist next;
+                if (nextRight == null
+                        || (nextLeft != null && LISTING.compare(nextLeft, nextRight) < 0)) {
+                    next = nextLeft;
+                    nextLeft = advance(left);
+                } else {
+                    next = nextRight;
+                    nextRight = advance(right);
+                }
+                return next;
+            }
+        };
+    }
+
+    private static Playlist advance(final Iterator<Playlist> iterator) {
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+}
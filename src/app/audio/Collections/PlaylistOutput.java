@@ -1,5 +1,6 @@
 package app.audio.Collections;
 
+import app.audio.Files.Song;
 import app.utils.Enums;
 import lombok.Getter;
 
@@ -17,8 +18,8 @@ public class PlaylistOutput {
     public PlaylistOutput(final Playlist playlist) {
         this.name = playlist.getName();
         this.songs = new ArrayList<>();
-        for (int i = 0; i < playlist.getSongs().size(); i++) {
-            songs.add(playlist.getSongs().get(i).getName());
+        for (Song song : playlist.getSongs()) {
+            songs.add(song.getName());
         }
         this.visibility = playlist.getVisibility()
                 == Enums.Visibility.PRIVATE ? "private" : "public";
@@ -0,0 +1,93 @@
+package app.audio.Collections;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Live ranking of every user's playlists, ordered by followers descending and
+ * then by creation timestamp. Remaining ties keep the order in which the playlists
+ * are listed user by user, so the ranking matches a stable sort of all playlists.
+ * {@link Playlist#increaseFollowers()} and {@link Playlist#decreaseFollowers()}
+ * reposition a playlist in O(log n).
+ */
+public final class PlaylistRanking implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // serializable, since the ranking is saved with the rest of a checkpoint
+    private static final Comparator<Playlist> ORDER =
+            (Comparator<Playlist> & Serializable) (a, b) -> {
+                int order = Integer.compare(b.getFollowers(), a.getFollowers());
+                if (order == 0) {
+                    order = Integer.compare(a.getTimestamp(), b.getTimestamp());
+                }
+                if (order == 0) {
+                    order = Integer.compare(a.getOwnerOrder(), b.getOwnerOrder());
+                }
+                return order != 0 ? order
+                        : Integer.compare(a.getCreationOrder(), b.getCreationOrder());
+            };
+
+    private final TreeSet<Playlist> ranking = new TreeSet<>(ORDER);
+    private final Map<String, Integer> ownerOrders = new HashMap<>();
+    private int created;
+
+    /**
+     * Registers a playlist owner, in the order users are listed by the admin.
+     *
+     * @param owner The username of the owner.
+     */
+    public void addOwner(final String owner) {
+        ownerOrders.putIfAbsent(owner, ownerOrders.size());
+    }
+
+    /**
+     * Adds a newly created playlist to the ranking.
+     *
+     * @param playlist The playlist to rank.
+     */
+    public void add(final Playlist playlist) {
+        addOwner(playlist.getOwner());
+        playlist.attach(this, ownerOrders.get(playlist.getOwner()), created++);
+        ranking.add(playlist);
+    }
+
+    /**
+     * Removes a playlist so its follower count can change.
+     *
+     * @param playlist The playlist to remove.
+     */
+    void remove(final Playlist playlist) {
+        ranking.remove(playlist);
+    }
+
+    /**
+     * Puts back a playlist removed with {@link #remove(Playlist)}.
+     *
+     * @param playlist The playlist to reinsert.
+     */
+    void reinsert(final Playlist playlist) {
+        ranking.add(playlist);
+    }
+
+    /**
+     * Gets the names of the most followed playlists.
+     *
+     * @param limit The maximum number of playlists to return.
+     * @return The names of the top playlists, in ranking order.
+     */
+    public List<String> top(final int limit) {
+        List<String> topPlaylists = new ArrayList<>();
+        for (Playlist playlist : ranking) {
+            if (topPlaylists.size() >= limit) {
+                break;
+            }
+            topPlaylists.add(playlist.getName());
+        }
+        return topPlaylists;
+    }
+}
@@ -5,6 +5,7 @@ import app.audio.Files.Episode;
 import java.util.List;
 
 public final class Podcast extends AudioCollection {
+    private static final long serialVersionUID = 1L;
     private final List<Episode> episodes;
 
     public Podcast(final String name, final String owner,
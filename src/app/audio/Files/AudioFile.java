@@ -5,6 +5,7 @@ import lombok.Getter;
 
 @Getter
 public abstract class AudioFile extends LibraryEntry {
+    private static final long serialVersionUID = 1L;
     private final Integer duration;
 
     public AudioFile(final String name, final Integer duration) {
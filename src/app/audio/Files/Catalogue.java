@@ -0,0 +1,148 @@
+package app.audio.Files;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Dictionaries of the song metadata values that repeat across the library:
+ * genres, artists, albums and tags. Every distinct value is stored once and
+ * songs keep small integer ids instead of their own strings. Values that a
+ * filter treats as equal (ignoring case) share a match id, so matching a song
+ * against a filter compares ids.
+ */
+public final class Catalogue implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** The id of a value that is not in a dictionary. */
+    public static final int ABSENT = -1;
+
+    private final Dictionary genres = new Dictionary(Catalogue::fold);
+    private final Dictionary artists = new Dictionary(Catalogue::fold);
+    private final Dictionary albums = new Dictionary(Catalogue::fold);
+    private final Dictionary tags = new Dictionary(String::toLowerCase);
+
+    public Dictionary getGenres() {
+        return genres;
+    }
+
+    public Dictionary getArtists() {
+        return artists;
+    }
+
+    public Dictionary getAlbums() {
+        return albums;
+    }
+
+    public Dictionary getTags() {
+        return tags;
+    }
+
+    /**
+     * Folds a string to the key under which {@link String#equalsIgnoreCase}
+     * considers two strings equal.
+     *
+     * @param value The string to fold.
+     * @return The folded key.
+     */
+    public static String fold(final String value) {
+        StringBuilder folded = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            folded.append(Character.toLowerCase(Character.toUpperCase(value.charAt(i))));
+        }
+        return folded.toString();
+    }
+
+    /**
+     * Maps a value to the key shared by the values that match it.
+     */
+    private interface Normalizer extends UnaryOperator<String>, Serializable {
+    }
+
+    /**
+     * The distinct values of one metadata field, numbered in the order they
+     * were first seen.
+     */
+    public static final class Dictionary implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final Normalizer normalizer;
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final Map<String, Integer> matchIds = new HashMap<>();
+        private int[] matchIdOf = new int[0];
+
+        private Dictionary(final Normalizer normalizer) {
+            this.normalizer = normalizer;
+        }
+
+        /**
+         * Gets the id of a value, adding the value if it is new.
+         *
+         * @param value The value to encode, or {@code null}.
+         * @return The id of the value, or {@link #ABSENT} for {@code null}.
+         */
+        public int encode(final String value) {
+            if (value == null) {
+                return ABSENT;
+            }
+            Integer id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+
+            int newId = values.size();
+            values.add(value);
+            ids.put(value, newId);
+            if (newId == matchIdOf.length) {
+                matchIdOf = Arrays.copyOf(matchIdOf, Math.max(1, 2 * newId));
+            }
+            matchIdOf[newId] = matchIds.computeIfAbsent(normalizer.apply(value),
+                    key -> matchIds.size());
+            return newId;
+        }
+
+        /**
+         * Gets the value with the given id.
+         *
+         * @param id The id of the value.
+         * @return The value, or {@code null} for {@link #ABSENT}.
+         */
+        public String decode(final int id) {
+            return id == ABSENT ? null : values.get(id);
+        }
+
+        /**
+         * Gets the match id of an encoded value.
+         *
+         * @param id The id of the value.
+         * @return The id shared by every value that matches it.
+         */
+        public int matchId(final int id) {
+            return id == ABSENT ? ABSENT : matchIdOf[id];
+        }
+
+        /**
+         * Gets the match id of a filter value, without adding it.
+         *
+         * @param query The filter value.
+         * @return The match id, or {@link #ABSENT} if no encoded value matches it.
+         */
+        public int findMatchId(final String query) {
+            Integer matchId = matchIds.get(normalizer.apply(query));
+            return matchId == null ? ABSENT : matchId;
+        }
+
+        /**
+         * Returns the number of distinct values.
+         *
+         * @return The dictionary size.
+         */
+        public int size() {
+            return values.size();
+        }
+    }
+}
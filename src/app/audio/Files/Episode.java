@@ -4,6 +4,7 @@ import lombok.Getter;
 
 @Getter
 public final class Episode extends AudioFile {
+    private static final long serialVersionUID = 1L;
     private final String description;
 
     public Episode(final String name, final Integer duration, final String description) {
@@ -0,0 +1,164 @@
+package app.audio.Files;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Append-only file holding song lyrics off the heap. Lyrics are written as
+ * UTF-8 and identified by their byte offset and length; reading them back goes
+ * through a small LRU cache of decoded strings, so a search that checks the
+ * same candidates again does not hit the file. Appends are buffered and
+ * flushed before a read that needs them.
+ */
+public final class LyricsFile implements Closeable {
+    private static final int DEFAULT_CACHE_SIZE = 1024;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer pending = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+    private final Map<Long, String> cache;
+    private long flushed;
+
+    private LyricsFile(final Path path, final int cacheSize) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.cache = new LinkedHashMap<>(cacheSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Long, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Creates an empty lyrics file in the temporary directory, removed on close.
+     *
+     * @return The new lyrics file.
+     */
+    public static LyricsFile createTemporary() {
+        return createTemporary(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates an empty lyrics file in the temporary directory, removed on close.
+     *
+     * @param cacheSize The number of decoded lyrics kept in memory.
+     * @return The new lyrics file.
+     */
+    public static LyricsFile createTemporary(final int cacheSize) {
+        try {
+            Path path = Files.createTempFile("lyrics", ".txt");
+            path.toFile().deleteOnExit();
+            return new LyricsFile(path, cacheSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Appends lyrics at the end of the file.
+     *
+     * @param lyrics The lyrics to write.
+     * @return The offset of the lyrics; they end at the new {@link #size()}.
+     */
+    public long append(final String lyrics) {
+        byte[] bytes = lyrics.getBytes(StandardCharsets.UTF_8);
+        long offset = size();
+        if (bytes.length == 0) {
+            // empty lyrics share their offset with the next ones, so they are not cached
+            return offset;
+        }
+        if (bytes.length > pending.remaining()) {
+            flush();
+        }
+        if (bytes.length > pending.capacity()) {
+            write(ByteBuffer.wrap(bytes));
+        } else {
+            pending.put(bytes);
+        }
+        cache.put(offset, lyrics);
+        return offset;
+    }
+
+    /**
+     * Returns the size of the file, including the appends not yet flushed.
+     *
+     * @return The offset at which the next lyrics will be written.
+     */
+    public long size() {
+        return flushed + pending.position();
+    }
+
+    /**
+     * Reads lyrics back from the file.
+     *
+     * @param offset The offset returned by {@link #append(String)}.
+     * @param length The length of the lyrics in bytes.
+     * @return The lyrics.
+     */
+    public String read(final long offset, final int length) {
+        if (length == 0) {
+            return "";
+        }
+        String lyrics = cache.get(offset);
+        if (lyrics != null) {
+            return lyrics;
+        }
+        if (offset + length > flushed) {
+            flush();
+        }
+
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        try {
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, offset + bytes.position()) < 0) {
+                    throw new IOException("Lyrics past the end of " + path);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        lyrics = new String(bytes.array(), StandardCharsets.UTF_8);
+        cache.put(offset, lyrics);
+        return lyrics;
+    }
+
+    private void flush() {
+        pending.flip();
+        write(pending);
+        pending.clear();
+    }
+
+    private void write(final ByteBuffer bytes) {
+        try {
+            while (bytes.hasRemaining()) {
+                flushed += channel.write(bytes, flushed);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Closes and deletes the file.
+     *
+     * @throws IOException in case of exceptions to closing / deleting
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+}
@@ -1,55 +1,137 @@
 package app.audio.Files;
 
+import app.searchBar.NumberRange;
+import lombok.AccessLevel;
 import lombok.Getter;
 
 import java.util.ArrayList;
-import java.util.List;
 
 @Getter
 public final class Song extends AudioFile {
-    private  String album;
-    private  ArrayList<String> tags;
-    private  String lyrics;
-    private  String genre;
-    private  Integer releaseYear;
-    private  String artist;
-    private Integer likes;
+    private static final long serialVersionUID = 1L;
+    // the empty metadata shared by every detached song, never written after this
+    private static final SongStore DETACHED = new SongStore();
+    private static final int DETACHED_ROW = DETACHED.append(null, null, null, null, null,
+            null, null);
 
+    // every field but the name lives in a row of the store,
+    // except the duration and likes of a detached song
+    @Getter(AccessLevel.NONE)
+    private final SongStore store;
+    @Getter(AccessLevel.NONE)
+    private final int row;
+    @Getter(AccessLevel.NONE)
+    private final boolean detached;
+    @Getter(AccessLevel.NONE)
+    private int detachedLikes;
+    @Getter(AccessLevel.NONE)
+    private SongRanking ranking;
+    @Getter(AccessLevel.NONE)
+    private int libraryPosition;
 
 
+    /**
+     * Creates a song without metadata, outside the library. Its empty metadata
+     * is one row shared by all such songs, and it keeps its duration and likes itself.
+     *
+     * @param name     The song name.
+     * @param duration The duration, in seconds.
+     */
     public Song(final String name, final Integer duration) {
-        super(name, duration);
+        super(name, duration == null ? 0 : duration);
+        this.store = DETACHED;
+        this.row = DETACHED_ROW;
+        this.detached = true;
+    }
+
+    Song(final String name, final SongStore store, final int row) {
+        super(name, null);
+        this.store = store;
+        this.row = row;
+        this.detached = false;
+    }
+
+    /**
+     * Gets the row of the song in the store of the library.
+     *
+     * @return The row, stable for as long as the song is in the library.
+     */
+    public int getRow() {
+        return row;
+    }
+
+    @Override
+    public Integer getDuration() {
+        return detached ? super.getDuration() : store.getDuration(row);
+    }
+
+    public String getLyrics() {
+        return store.getLyrics(row);
+    }
+
+    public Integer getReleaseYear() {
+        return store.getReleaseYear(row);
+    }
+
+    public Integer getLikes() {
+        return detached ? detachedLikes : store.getLikes(row);
+    }
+
+    public String getAlbum() {
+        return catalogue().getAlbums().decode(store.getAlbum(row));
+    }
+
+    public String getGenre() {
+        return catalogue().getGenres().decode(store.getGenre(row));
+    }
+
+    public String getArtist() {
+        return catalogue().getArtists().decode(store.getArtist(row));
+    }
+
+    /**
+     * Gets the tags of the song, in their original order.
+     *
+     * @return A new list of the tags, or {@code null} if the song has none set.
+     */
+    public ArrayList<String> getTags() {
+        if (store.isUntagged(row)) {
+            return null;
+        }
+        int end = store.getTagsEnd(row);
+        ArrayList<String> values = new ArrayList<>(end - store.getTagsStart(row));
+        for (int i = store.getTagsStart(row); i < end; i++) {
+            values.add(catalogue().getTags().decode(store.getTag(i)));
+        }
+        return values;
     }
 
-    public Song(final String name, final Integer duration,
-                final String album, final ArrayList<String> tags,
-                final String lyrics,
-                final String genre, final Integer releaseYear,
-                final String artist) {
-        super(name, duration);
-        this.album = album;
-        this.tags = tags;
-        this.lyrics = lyrics;
-        this.genre = genre;
-        this.releaseYear = releaseYear;
-        this.artist = artist;
-        this.likes = 0;
+    private Catalogue catalogue() {
+        return store.getCatalogue();
     }
 
     @Override
     public boolean matchesAlbum(final String albumMatched) {
-        return this.getAlbum().equalsIgnoreCase(albumMatched);
+        return matches(catalogue().getAlbums(), store.getAlbum(row), albumMatched);
     }
 
     @Override
     public boolean matchesTags(final ArrayList<String> tagsMatched) {
-        List<String> songTags = new ArrayList<>();
-        for (String tag : this.getTags()) {
-            songTags.add(tag.toLowerCase());
-        }
-
+        Catalogue.Dictionary dictionary = catalogue().getTags();
+        int end = store.getTagsEnd(row);
         for (String tag : tagsMatched) {
-            if (!songTags.contains(tag.toLowerCase())) {
+            int matchId = dictionary.findMatchId(tag);
+            if (matchId == Catalogue.ABSENT) {
+                return false;
+            }
+            boolean found = false;
+            for (int i = store.getTagsStart(row); i < end; i++) {
+                if (dictionary.matchId(store.getTag(i)) == matchId) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
                 return false;
             }
         }
@@ -62,39 +144,66 @@ public final class Song extends AudioFile {
 
     @Override
     public boolean matchesGenre(final String genreMatched) {
-        return this.getGenre().equalsIgnoreCase(genreMatched);
+        return matches(catalogue().getGenres(), store.getGenre(row), genreMatched);
     }
 
     @Override
     public boolean matchesArtist(final String artistMatched) {
-        return this.getArtist().equalsIgnoreCase(artistMatched);
+        return matches(catalogue().getArtists(), store.getArtist(row), artistMatched);
     }
 
-    @Override
-    public boolean matchesReleaseYear(final String releaseYearMatched) {
-        return filterByYear(this.getReleaseYear(), releaseYearMatched);
+    /**
+     * Checks if an encoded value is equal to a filter value, ignoring case,
+     * by comparing their match ids.
+     */
+    private static boolean matches(final Catalogue.Dictionary dictionary,
+                                   final int id, final String query) {
+        int matchId = dictionary.matchId(id);
+        return matchId != Catalogue.ABSENT && matchId == dictionary.findMatchId(query);
     }
 
-    private static boolean filterByYear(final int year, final String query) {
-        if (query.startsWith("<")) {
-            return year < Integer.parseInt(query.substring(1));
-        } else if (query.startsWith(">")) {
-            return year > Integer.parseInt(query.substring(1));
-        } else {
-            return year == Integer.parseInt(query);
-        }
+    @Override
+    public boolean matchesReleaseYear(final String releaseYearMatched) {
+        return NumberRange.parse(releaseYearMatched).contains(store.getReleaseYear(row));
     }
 
     /**
      * Increments the like count for this entity.
      */
     public void like() {
-        likes++;
+        changeLikes(1);
     }
     /**
      * Decrements the like count for this entity.
      */
     public void dislike() {
-        likes--;
+        changeLikes(-1);
+    }
+    /**
+     * Applies a like count change, repositioning the song in its ranking if it has one.
+     *
+     * @param delta The change in likes.
+     */
+    private void changeLikes(final int delta) {
+        if (detached) {
+            detachedLikes += delta;
+            return;
+        }
+        if (ranking == null) {
+            store.changeLikes(row, delta);
+            return;
+        }
+        ranking.remove(this);
+        store.changeLikes(row, delta);
+        ranking.reinsert(this);
+    }
+
+    int getLibraryPosition() {
+        return libraryPosition;
+    }
+
+    void attach(final SongRanking songRanking, final int position) {
+        this.ranking = songRanking;
+        this.libraryPosition = position;
     }
 }
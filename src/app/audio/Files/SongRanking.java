@@ -0,0 +1,71 @@
+package app.audio.Files;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Live ranking of the library songs by likes. Songs are ordered by likes descending
+ * and then by their position in the library, so equal counts keep library order.
+ * {@link Song#like()} and {@link Song#dislike()} reposition a song in O(log n).
+ */
+public final class SongRanking implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // serializable, since the ranking is saved with the rest of a checkpoint
+    private static final Comparator<Song> ORDER = (Comparator<Song> & Serializable) (a, b) -> {
+        int byLikes = Integer.compare(b.getLikes(), a.getLikes());
+        return byLikes != 0 ? byLikes
+                : Integer.compare(a.getLibraryPosition(), b.getLibraryPosition());
+    };
+
+    private final TreeSet<Song> ranking = new TreeSet<>(ORDER);
+    private int size;
+
+    /**
+     * Adds a song after every song already in the library.
+     *
+     * @param song The song to rank.
+     */
+    public void add(final Song song) {
+        song.attach(this, size++);
+        ranking.add(song);
+    }
+
+    /**
+     * Removes a song so its like count can change.
+     *
+     * @param song The song to remove.
+     */
+    void remove(final Song song) {
+        ranking.remove(song);
+    }
+
+    /**
+     * Puts back a song removed with {@link #remove(Song)}.
+     *
+     * @param song The song to reinsert.
+     */
+    void reinsert(final Song song) {
+        ranking.add(song);
+    }
+
+    /**
+     * Gets the names of the most liked songs.
+     *
+     * @param limit The maximum number of songs to return.
+     * @return The names of the top songs, in ranking order.
+     */
+    public List<String> top(final int limit) {
+        List<String> topSongs = new ArrayList<>();
+        for (Song song : ranking) {
+            if (topSongs.size() >= limit) {
+                break;
+            }
+            topSongs.add(song.getName());
+        }
+        return topSongs;
+    }
+}
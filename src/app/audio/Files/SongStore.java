@@ -0,0 +1,316 @@
+package app.audio.Files;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Column store of the song library. Every song is a row, and each field is a
+ * primitive array indexed by row: durations, likes and release years as ints,
+ * genre, artist and album as {@link Catalogue} ids, and the tags of all songs
+ * packed into one id array with per-row offsets. {@link Song} objects are thin
+ * views over a row, so a scan over a field is a linear pass over one array.
+ * Lyrics are kept on the heap, or in a {@link LyricsFile} with only their
+ * offset and length stored per row.
+ */
+public final class SongStore implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Catalogue catalogue = new Catalogue();
+    private int size;
+    private Song[] songs = new Song[INITIAL_CAPACITY];
+    private int[] durations = new int[INITIAL_CAPACITY];
+    private int[] likes = new int[INITIAL_CAPACITY];
+    private int[] releaseYears = new int[INITIAL_CAPACITY];
+    private int[] genres = new int[INITIAL_CAPACITY];
+    private int[] artists = new int[INITIAL_CAPACITY];
+    private int[] albums = new int[INITIAL_CAPACITY];
+    // lyrics on the heap, or their place in the lyrics file (length -1 for none)
+    // not serialized: the lyrics are written with the store and appended to a new file
+    private transient LyricsFile lyricsFile;
+    private String[] lyrics;
+    private long[] lyricsOffsets;
+    private int[] lyricsLengths;
+    // the tags of row r are tags[tagOffsets[r]] up to tags[tagOffsets[r + 1]]
+    private int[] tagOffsets = new int[INITIAL_CAPACITY + 1];
+    private int[] tags = new int[INITIAL_CAPACITY];
+    // rows created without a tag list, whose getTags() stays null
+    private boolean[] untagged = new boolean[INITIAL_CAPACITY];
+
+    /**
+     * Creates an empty store that keeps lyrics on the heap.
+     */
+    public SongStore() {
+        this(null);
+    }
+
+    /**
+     * Creates an empty store.
+     *
+     * @param lyricsFile The file to keep lyrics in, or {@code null} to keep them on the heap.
+     */
+    public SongStore(final LyricsFile lyricsFile) {
+        this.lyricsFile = lyricsFile;
+        if (lyricsFile == null) {
+            lyrics = new String[INITIAL_CAPACITY];
+        } else {
+            lyricsOffsets = new long[INITIAL_CAPACITY];
+            lyricsLengths = new int[INITIAL_CAPACITY];
+        }
+    }
+
+    /**
+     * Appends a song to the store.
+     *
+     * @param name        The song name.
+     * @param duration    The duration, in seconds.
+     * @param album       The album.
+     * @param songTags    The tags, or {@code null}.
+     * @param songLyrics  The lyrics.
+     * @param genre       The genre.
+     * @param releaseYear The release year.
+     * @param artist      The artist.
+     * @return The view of the new row.
+     */
+    public Song add(final String name, final Integer duration,
+                    final String album, final List<String> songTags,
+                    final String songLyrics, final String genre,
+                    final Integer releaseYear, final String artist) {
+        int row = append(duration, album, songTags, songLyrics, genre, releaseYear, artist);
+        Song song = new Song(name, this, row);
+        songs[row] = song;
+        return song;
+    }
+
+    /**
+     * Appends a row without a view, for {@link #add} and for detached songs.
+     *
+     * @return The new row.
+     */
+    int append(final Integer duration, final String album, final List<String> songTags,
+               final String songLyrics, final String genre,
+               final Integer releaseYear, final String artist) {
+        if (size == durations.length) {
+            grow();
+        }
+        int row = size++;
+        durations[row] = duration == null ? 0 : duration;
+        releaseYears[row] = releaseYear == null ? 0 : releaseYear;
+        genres[row] = catalogue.getGenres().encode(genre);
+        artists[row] = catalogue.getArtists().encode(artist);
+        albums[row] = catalogue.getAlbums().encode(album);
+        if (lyricsFile == null) {
+            lyrics[row] = songLyrics;
+        } else if (songLyrics == null) {
+            lyricsLengths[row] = -1;
+        } else {
+            lyricsOffsets[row] = lyricsFile.append(songLyrics);
+            lyricsLengths[row] = (int) (lyricsFile.size() - lyricsOffsets[row]);
+        }
+
+        int offset = tagOffsets[row];
+        untagged[row] = songTags == null;
+        if (songTags != null) {
+            if (offset + songTags.size() > tags.length) {
+                tags = Arrays.copyOf(tags, Math.max(2 * tags.length, offset + songTags.size()));
+            }
+            for (String tag : songTags) {
+                tags[offset++] = catalogue.getTags().encode(tag);
+            }
+        }
+        tagOffsets[row + 1] = offset;
+        return row;
+    }
+
+    private void grow() {
+        int capacity = 2 * durations.length;
+        songs = Arrays.copyOf(songs, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        likes = Arrays.copyOf(likes, capacity);
+        releaseYears = Arrays.copyOf(releaseYears, capacity);
+        genres = Arrays.copyOf(genres, capacity);
+        artists = Arrays.copyOf(artists, capacity);
+        albums = Arrays.copyOf(albums, capacity);
+        if (lyricsFile == null) {
+            lyrics = Arrays.copyOf(lyrics, capacity);
+        } else {
+            lyricsOffsets = Arrays.copyOf(lyricsOffsets, capacity);
+            lyricsLengths = Arrays.copyOf(lyricsLengths, capacity);
+        }
+        tagOffsets = Arrays.copyOf(tagOffsets, capacity + 1);
+        untagged = Arrays.copyOf(untagged, capacity);
+    }
+
+    public Catalogue getCatalogue() {
+        return catalogue;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return The number of songs in the store.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the view of a row.
+     *
+     * @param row The row.
+     * @return The song stored in that row.
+     */
+    public Song get(final int row) {
+        return songs[row];
+    }
+
+    /**
+     * Gets the songs of the store as a list, in row order.
+     *
+     * @return A read-only list view of the songs.
+     */
+    public List<Song> asList() {
+        return new SongList();
+    }
+
+    public int getDuration(final int row) {
+        return durations[row];
+    }
+
+    public int getLikes(final int row) {
+        return likes[row];
+    }
+
+    public int getReleaseYear(final int row) {
+        return releaseYears[row];
+    }
+
+    public int getGenre(final int row) {
+        return genres[row];
+    }
+
+    public int getArtist(final int row) {
+        return artists[row];
+    }
+
+    public int getAlbum(final int row) {
+        return albums[row];
+    }
+
+    /**
+     * Gets the lyrics of a row, reading them from the lyrics file if there is one.
+     *
+     * @param row The row.
+     * @return The lyrics.
+     */
+    public String getLyrics(final int row) {
+        if (lyricsFile == null) {
+            return lyrics[row];
+        }
+        int length = lyricsLengths[row];
+        return length < 0 ? null : lyricsFile.read(lyricsOffsets[row], length);
+    }
+
+    /**
+     * Checks if a row was stored without a tag list.
+     *
+     * @param row The row.
+     * @return True if the song has no tags set.
+     */
+    public boolean isUntagged(final int row) {
+        return untagged[row];
+    }
+
+    /**
+     * Gets the position in {@link #getTag(int)} of the first tag of a row.
+     *
+     * @param row The row.
+     * @return The start of the row's tags.
+     */
+    public int getTagsStart(final int row) {
+        return tagOffsets[row];
+    }
+
+    /**
+     * Gets the position in {@link #getTag(int)} after the last tag of a row.
+     *
+     * @param row The row.
+     * @return The end of the row's tags.
+     */
+    public int getTagsEnd(final int row) {
+        return tagOffsets[row + 1];
+    }
+
+    /**
+     * Gets a tag id from the packed tag column.
+     *
+     * @param position A position between a row's tag start and end.
+     * @return The tag id.
+     */
+    public int getTag(final int position) {
+        return tags[position];
+    }
+
+    /**
+     * Closes the lyrics file, if the store has one. The store cannot be read after.
+     */
+    public void close() {
+        if (lyricsFile == null) {
+            return;
+        }
+        try {
+            lyricsFile.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        if (lyricsFile != null) {
+            for (int row = 0; row < size; row++) {
+                out.writeObject(getLyrics(row));
+            }
+        }
+    }
+
+    private void readObject(final ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (lyricsOffsets != null) {
+            lyricsFile = LyricsFile.createTemporary();
+            for (int row = 0; row < size; row++) {
+                String songLyrics = (String) in.readObject();
+                if (songLyrics != null) {
+                    lyricsOffsets[row] = lyricsFile.append(songLyrics);
+                }
+            }
+        }
+    }
+
+    void changeLikes(final int row, final int delta) {
+        likes[row] += delta;
+    }
+
+    private final class SongList extends AbstractList<Song> implements RandomAccess {
+        @Override
+        public Song get(final int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return songs[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
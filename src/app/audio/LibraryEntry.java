@@ -2,10 +2,12 @@ package app.audio;
 
 import lombok.Getter;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 
 @Getter
-public abstract class LibraryEntry {
+public abstract class LibraryEntry implements Serializable {
+    private static final long serialVersionUID = 1L;
     private final String name;
 
     /**
@@ -6,10 +6,12 @@ import app.audio.LibraryEntry;
 import app.utils.Enums;
 import lombok.Getter;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
-public final class Player {
+public final class Player implements Serializable {
+    private static final long serialVersionUID = 1L;
     private static final Integer SKIP_NUMBER_NEGATIVE = -90;
     private static final Integer SKIP_NUMBER = 90;
     private Enums.RepeatMode repeatMode;
@@ -161,6 +163,9 @@ public final class Player {
      */
     public void simulatePlayer(int time) {
         if (!paused) {
+            if (source.fastForward(time, repeatMode, shuffle)) {
+                return;
+            }
             while (time >= source.getDuration()) {
                 time -= source.getDuration();
                 next();
@@ -229,6 +234,26 @@ public final class Player {
         }
         return source.getAudioFile();
     }
+    /**
+     * Gets the time left until the current track ends.
+     *
+     * @return The remaining time, or -1 if nothing is playing.
+     */
+    public int getTimeUntilTrackEnd() {
+        if (paused || source == null) {
+            return -1;
+        }
+        return source.getDuration();
+    }
+    /**
+     * Checks if the player holds no state worth keeping: nothing is loaded and
+     * no podcast is bookmarked, so it behaves like a new player.
+     *
+     * @return True if the player is idle.
+     */
+    public boolean isIdle() {
+        return source == null && bookmarks.isEmpty();
+    }
     /**
      * Gets the paused status of the player.
      *
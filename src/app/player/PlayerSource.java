@@ -5,12 +5,13 @@ import app.audio.Files.AudioFile;
 import app.utils.Enums;
 import lombok.Getter;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Random;
 
-public final class PlayerSource {
+public final class PlayerSource implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     @Getter
     private Enums.PlayerSourceType type;
     @Getter
@@ -21,7 +22,12 @@ public final class PlayerSource {
     private int index;
     private int indexShuffled;
     private int remainedDuration;
-    private final List<Integer> indices = new ArrayList<>();
+    // play order while shuffled, and the position of every track within it
+    private int[] shuffleOrder = new int[0];
+    private int[] shufflePositions = new int[0];
+    private long[] cycleStarts;
+    private boolean cycleShuffled;
+    private int cycleRevision;
 
     public PlayerSource(final Enums.PlayerSourceType type,
                         final AudioFile audioFile) {
@@ -79,13 +85,13 @@ public final class PlayerSource {
                 remainedDuration = audioFile.getDuration();
             } else if (repeatMode == Enums.RepeatMode.NO_REPEAT) {
                 if (shuffle) {
-                    if (indexShuffled == indices.size() - 1) {
+                    if (indexShuffled == shuffleOrder.length - 1) {
                         remainedDuration = 0;
                         isPaused = true;
                     } else {
                         indexShuffled++;
 
-                        index = indices.get(indexShuffled);
+                        index = shuffleOrder[indexShuffled];
                         updateAudioFile();
                         remainedDuration = audioFile.getDuration();
                     }
@@ -101,8 +107,8 @@ public final class PlayerSource {
                 }
             } else if (repeatMode == Enums.RepeatMode.REPEAT_ALL) {
                 if (shuffle) {
-                    indexShuffled = (indexShuffled + 1) % indices.size();
-                    index = indices.get(indexShuffled);
+                    indexShuffled = (indexShuffled + 1) % shuffleOrder.length;
+                    index = shuffleOrder[indexShuffled];
                 } else {
                     index = (index + 1) % audioCollection.getNumberOfTracks();
                 }
@@ -113,6 +119,121 @@ public final class PlayerSource {
 
         return isPaused;
     }
+    /**
+     * Plays the source forward for the given time in one step, when every finished
+     * track is always followed by another one: a repeated single track, or a
+     * collection in REPEAT_ALL. The result is the same as calling
+     * {@link #setNextAudioFile} once per finished track.
+     *
+     * @param time       The time to play, in seconds.
+     * @param repeatMode The current repeat mode.
+     * @param shuffle    The shuffle status.
+     * @return {@code true} if the time was consumed, {@code false} if the caller
+     * has to step through the tracks itself.
+     */
+    public boolean fastForward(final int time, final Enums.RepeatMode repeatMode,
+                               final boolean shuffle) {
+        boolean repeatsTrack = repeatMode == Enums.RepeatMode.REPEAT_INFINITE
+                || repeatMode == Enums.RepeatMode.REPEAT_CURRENT_SONG
+                || (type == Enums.PlayerSourceType.LIBRARY
+                && repeatMode == Enums.RepeatMode.REPEAT_ALL);
+        boolean repeatsCollection = type != Enums.PlayerSourceType.LIBRARY
+                && repeatMode == Enums.RepeatMode.REPEAT_ALL;
+        if (!repeatsTrack && !repeatsCollection) {
+            return false;
+        }
+        if (time < remainedDuration) {
+            remainedDuration -= time;
+            return true;
+        }
+        if (repeatsTrack) {
+            return repeatTrack(time - remainedDuration);
+        }
+        return repeatCollection(time - remainedDuration, shuffle);
+    }
+    /**
+     * Plays the current track over and over, starting from its beginning.
+     *
+     * @param time The time left after the current track ended.
+     * @return {@code false} for an empty track, which never consumes any time.
+     */
+    private boolean repeatTrack(final int time) {
+        int duration = audioFile.getDuration();
+        if (duration <= 0) {
+            return false;
+        }
+        remainedDuration = duration - time % duration;
+        return true;
+    }
+    /**
+     * Cycles through the collection in play order, starting from the track after
+     * the current one, and lands on the track playing once the time runs out.
+     *
+     * @param time    The time left after the current track ended.
+     * @param shuffle The shuffle status.
+     * @return {@code false} for a collection without any playing time, or one
+     * changed since it was shuffled.
+     */
+    private boolean repeatCollection(final int time, final boolean shuffle) {
+        if (shuffle && shuffleOrder.length != audioCollection.getNumberOfTracks()) {
+            // a stale order may point past the tracks; stepping only reads it as far as it plays
+            return false;
+        }
+        long[] starts = getCycleStarts(shuffle);
+        int size = starts.length - 1;
+        long total = starts[size];
+        if (total <= 0) {
+            return false;
+        }
+
+        int next = ((shuffle ? indexShuffled : index) + 1) % size;
+        long offset = (starts[next] + time) % total;
+
+        // last track starting at or before the offset, which skips empty tracks
+        int position = Arrays.binarySearch(starts, 0, size, offset);
+        if (position < 0) {
+            position = -position - 2;
+        }
+        while (position + 1 < size && starts[position + 1] == offset) {
+            position++;
+        }
+
+        if (shuffle) {
+            indexShuffled = position;
+            index = shuffleOrder[indexShuffled];
+        } else {
+            index = position;
+        }
+        updateAudioFile();
+        remainedDuration = (int) (starts[position + 1] - offset);
+        return true;
+    }
+    /**
+     * Gets the start time of every track within one pass over the collection,
+     * in play order, followed by the total duration. The array is cached until
+     * the play order or the collection changes.
+     *
+     * @param shuffle The shuffle status.
+     * @return The prefix sums of the track durations.
+     */
+    private long[] getCycleStarts(final boolean shuffle) {
+        int size = shuffle ? shuffleOrder.length : audioCollection.getNumberOfTracks();
+        if (cycleStarts != null && cycleShuffled == shuffle
+                && cycleRevision == audioCollection.getRevision()
+                && cycleStarts.length == size + 1) {
+            return cycleStarts;
+        }
+
+        long[] starts = new long[size + 1];
+        for (int i = 0; i < size; i++) {
+            int track = shuffle ? shuffleOrder[i] : i;
+            starts[i + 1] = starts[i] + audioCollection.getTrackByIndex(track).getDuration();
+        }
+        cycleStarts = starts;
+        cycleShuffled = shuffle;
+        cycleRevision = audioCollection.getRevision();
+        return cycleStarts;
+    }
     /**
      * Sets the previous audio file based on the shuffle status.
      *
@@ -129,7 +250,7 @@ public final class PlayerSource {
                     if (indexShuffled > 0) {
                         indexShuffled--;
                     }
-                    index = indices.get(indexShuffled);
+                    index = shuffleOrder[indexShuffled];
                     updateAudioFile();
                     remainedDuration = audioFile.getDuration();
                 } else {
@@ -144,26 +265,39 @@ public final class PlayerSource {
     }
     /**
      * Generates a shuffle order for the playlist based on the provided seed.
+     * The swaps are the ones {@code Collections.shuffle(list, new Random(seed))}
+     * makes, so the order is the same as shuffling a list of the track indices.
      *
      * @param seed The seed for randomness.
      */
     public void generateShuffleOrder(final Integer seed) {
-        indices.clear();
+        int size = audioCollection.getNumberOfTracks();
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
         Random random = new Random(seed);
-        for (int i = 0; i < audioCollection.getNumberOfTracks(); i++) {
-            indices.add(i);
+        for (int i = size; i > 1; i--) {
+            int j = random.nextInt(i);
+            int track = order[i - 1];
+            order[i - 1] = order[j];
+            order[j] = track;
         }
-        Collections.shuffle(indices, random);
+
+        int[] positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            positions[order[i]] = i;
+        }
+        shuffleOrder = order;
+        shufflePositions = positions;
+        cycleStarts = null;
     }
     /**
      * Updates the shuffle index based on the current playback index.
      */
     public void updateShuffleIndex() {
-        for (int i = 0; i < indices.size(); i++) {
-            if (indices.get(i) == index) {
-                indexShuffled = i;
-                break;
-            }
+        if (index >= 0 && index < shufflePositions.length) {
+            indexShuffled = shufflePositions[index];
         }
     }
     /**
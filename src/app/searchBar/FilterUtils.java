@@ -3,6 +3,7 @@ package app.searchBar;
 import app.audio.LibraryEntry;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 public final class FilterUtils {
@@ -11,142 +12,48 @@ public final class FilterUtils {
         throw new AssertionError("Utility class should not be instantiated");
     }
     /**
-     * Filters a list of {@link LibraryEntry} objects by name.
+     * Finds the first entries matching every criterion, in a single pass. The
+     * criteria of an entry are checked in order and the first that fails rejects
+     * it, so cheap and selective criteria should come first; the walk stops as
+     * soon as {@code limit} entries matched.
      *
-     * @param entries The list of library entries to filter.
-     * @param name    The name to match against.
-     * @return A list of library entries matching the specified name.
+     * @param entries  The entries to search, in result order.
+     * @param criteria The criteria every result must match.
+     * @param limit    The maximum number of results.
+     * @return The first {@code limit} matching entries.
      */
-    public static List<LibraryEntry> filterByName(final List<LibraryEntry> entries,
-                                                  final String name) {
+    static List<LibraryEntry> firstMatches(final Iterable<? extends LibraryEntry> entries,
+                                           final List<FilterCriteria> criteria,
+                                           final int limit) {
+        FilterCriteria[] chain = criteria.toArray(new FilterCriteria[0]);
         List<LibraryEntry> result = new ArrayList<>();
-        for (LibraryEntry entry : entries) {
-            if (entry.matchesName(name)) {
+        Iterator<? extends LibraryEntry> iterator = entries.iterator();
+        while (result.size() < limit && iterator.hasNext()) {
+            LibraryEntry entry = iterator.next();
+            boolean matches = true;
+            for (int i = 0; i < chain.length && matches; i++) {
+                matches = chain[i].matches(entry);
+            }
+            if (matches) {
                 result.add(entry);
             }
         }
         return result;
     }
     /**
-     * Filters a list of {@link LibraryEntry} objects by album.
-     *
-     * @param entries The list of library entries to filter.
-     * @param album   The album to match against.
-     * @return A list of library entries matching the specified album.
-     */
-    public static List<LibraryEntry> filterByAlbum(final List<LibraryEntry> entries,
-                                                   final String album) {
-        return filter(entries, entry -> entry.matchesAlbum(album));
-    }
-    /**
-     * Filters a list of {@link LibraryEntry} objects by tags.
-     *
-     * @param entries The list of library entries to filter.
-     * @param tags    The list of tags to match against.
-     * @return A list of library entries matching the specified tags.
-     */
-    public static List<LibraryEntry> filterByTags(final List<LibraryEntry> entries,
-                                                  final ArrayList<String> tags) {
-        return filter(entries, entry -> entry.matchesTags(tags));
-    }
-    /**
-     * Filters a list of {@link LibraryEntry} objects by lyrics.
-     *
-     * @param entries The list of library entries to filter.
-     * @param lyrics  The lyrics to match against.
-     * @return A list of library entries matching the specified lyrics.
-     */
-    public static List<LibraryEntry> filterByLyrics(final List<LibraryEntry> entries,
-                                                    final String lyrics) {
-        return filter(entries, entry -> entry.matchesLyrics(lyrics));
-    }
-    /**
-     * Filters a list of {@link LibraryEntry} objects by genre.
-     *
-     * @param entries The list of library entries to filter.
-     * @param genre   The genre to match against.
-     * @return A list of library entries matching the specified genre.
-     */
-    public static List<LibraryEntry> filterByGenre(final List<LibraryEntry> entries,
-                                                   final String genre) {
-        return filter(entries, entry -> entry.matchesGenre(genre));
-    }
-    /**
-     * Filters a list of {@link LibraryEntry} objects by artist.
-     *
-     * @param entries The list of library entries to filter.
-     * @param artist  The artist to match against.
-     * @return A list of library entries matching the specified artist.
-     */
-    public static List<LibraryEntry> filterByArtist(final List<LibraryEntry> entries,
-                                                    final String artist) {
-        return filter(entries, entry -> entry.matchesArtist(artist));
-    }
-    /**
-     * Filters a list of {@link LibraryEntry} objects by release year.
+     * Builds the criterion of {@link LibraryEntry#matchesName}, lower-casing the
+     * query once instead of once per entry.
      *
-     * @param entries     The list of library entries to filter.
-     * @param releaseYear The release year to match against.
-     * @return A list of library entries matching the specified release year.
+     * @param name The name prefix to match against.
+     * @return The criterion.
      */
-    public static List<LibraryEntry> filterByReleaseYear(final List<LibraryEntry> entries,
-                                                         final String releaseYear) {
-        return filter(entries, entry -> entry.matchesReleaseYear(releaseYear));
-    }
-    /**
-     * Filters a list of {@link LibraryEntry} objects by owner.
-     *
-     * @param entries The list of library entries to filter.
-     * @param user    The owner to match against.
-     * @return A list of library entries matching the specified owner.
-     */
-    public static List<LibraryEntry> filterByOwner(final List<LibraryEntry> entries,
-                                                   final String user) {
-        return filter(entries, entry -> entry.matchesOwner(user));
-    }
-    /**
-     * Filters a list of {@link LibraryEntry} objects by playlist visibility for a user.
-     *
-     * @param entries The list of library entries to filter.
-     * @param user    The user to check visibility for.
-     * @return A list of library entries visible to the specified user.
-     */
-    public static List<LibraryEntry> filterByPlaylistVisibility(final List<LibraryEntry> entries,
-                                                                final String user) {
-        return filter(entries, entry -> entry.isVisibleToUser(user));
-    }
-    /**
-     * Filters a list of {@link LibraryEntry} objects by followers.
-     *
-     * @param entries   The list of library entries to filter.
-     * @param followers The followers to match against.
-     * @return A list of library entries matching the specified followers.
-     */
-    public static List<LibraryEntry> filterByFollowers(final List<LibraryEntry> entries,
-                                                       final String followers) {
-        return filter(entries, entry -> entry.matchesFollowers(followers));
-    }
-    /**
-     * Generic method to filter a list of {@link LibraryEntry}
-     * objects based on a custom filter criteria.
-     *
-     * @param entries  The list of library entries to filter.
-     * @param criteria The custom filter criteria.
-     * @return A list of library entries that match the specified filter criteria.
-     */
-    private static List<LibraryEntry> filter(final List<LibraryEntry> entries,
-                                             final FilterCriteria criteria) {
-        List<LibraryEntry> result = new ArrayList<>();
-        for (LibraryEntry entry : entries) {
-            if (criteria.matches(entry)) {
-                result.add(entry);
-            }
-        }
-        return result;
+    static FilterCriteria byNamePrefix(final String name) {
+        String prefix = name.toLowerCase();
+        return entry -> entry.getName().toLowerCase().startsWith(prefix);
     }
 
     @FunctionalInterface
-    private interface FilterCriteria {
+    interface FilterCriteria {
         boolean matches(LibraryEntry entry);
     }
 }
@@ -1,7 +1,11 @@
 package app.searchBar;
 
 import fileio.input.FiltersInput;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.util.ArrayList;
 
@@ -16,6 +20,11 @@ public class Filters {
     private String artist;
     private String owner;
     private String followers;
+    // the release year filter parsed once, for every song a search checks
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private NumberRange releaseYearRange;
 
     public Filters(final FiltersInput filters) {
         this.name = filters.getName();
@@ -24,8 +33,45 @@ public class Filters {
         this.lyrics = filters.getLyrics();
         this.genre = filters.getGenre();
         this.releaseYear = filters.getReleaseYear();
+        this.releaseYearRange = parseReleaseYear(releaseYear);
         this.artist = filters.getArtist();
         this.owner = filters.getOwner();
         this.followers = filters.getFollowers();
     }
+
+    /**
+     * Parses the followers filter, so it is not parsed again for every playlist.
+     *
+     * @return The accepted follower counts, or null if the filter is not set.
+     */
+    public NumberRange parseFollowers() {
+        return followers == null ? null : NumberRange.parse(followers);
+    }
+
+    /**
+     * Sets the release year filter, along with its {@link #getReleaseYearRange() range}.
+     *
+     * @param releaseYear The release year query.
+     */
+    public void setReleaseYear(final String releaseYear) {
+        this.releaseYear = releaseYear;
+        this.releaseYearRange = parseReleaseYear(releaseYear);
+    }
+
+    /**
+     * Parses a release year filter. A year that is not a number matches no
+     * song, whatever the other filters.
+     *
+     * @return The accepted release years, or null if the filter is not set.
+     */
+    private static NumberRange parseReleaseYear(final String releaseYear) {
+        if (releaseYear == null) {
+            return null;
+        }
+        try {
+            return NumberRange.parse(releaseYear);
+        } catch (NumberFormatException e) {
+            return NumberRange.EMPTY;
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package app.searchBar;
+
+import lombok.Getter;
+
+/**
+ * An inclusive range of whole numbers, parsed from a filter query: {@code "<N"}
+ * accepts the numbers below N, {@code ">N"} the numbers above N, and {@code "N"}
+ * only N itself. Parsing a query once per search spares every checked entry
+ * from parsing it again.
+ */
+@Getter
+public final class NumberRange {
+    /** The range that holds no number. */
+    public static final NumberRange EMPTY = new NumberRange(Long.MAX_VALUE, Long.MIN_VALUE);
+
+    private final long min;
+    private final long max;
+
+    private NumberRange(final long min, final long max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Parses a filter query.
+     *
+     * @param query The query ("<", ">" or nothing, followed by a number).
+     * @return The range of numbers the query accepts.
+     * @throws NumberFormatException if the query does not hold a number
+     */
+    public static NumberRange parse(final String query) {
+        if (query.startsWith("<")) {
+            return new NumberRange(Long.MIN_VALUE, Integer.parseInt(query.substring(1)) - 1L);
+        } else if (query.startsWith(">")) {
+            return new NumberRange(Integer.parseInt(query.substring(1)) + 1L, Long.MAX_VALUE);
+        } else {
+            int value = Integer.parseInt(query);
+            return new NumberRange(value, value);
+        }
+    }
+
+    /**
+     * Checks if a number is in the range.
+     *
+     * @param value The number to check.
+     * @return True if the query accepts the number.
+     */
+    public boolean contains(final long value) {
+        return value >= min && value <= max;
+    }
+
+    /**
+     * Checks if the range holds no int, as for {@code "<-2147483648"}. The int
+     * bounds below are only meaningful when it does hold some.
+     *
+     * @return True if no int is in the range.
+     */
+    public boolean isEmptyForInts() {
+        return max < Integer.MIN_VALUE || min > Integer.MAX_VALUE;
+    }
+
+    /**
+     * Gets the lowest number of the range that fits in an int.
+     *
+     * @return The lower bound, clamped to the int domain.
+     */
+    public int getIntMin() {
+        return (int) Math.max(min, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Gets the highest number of the range that fits in an int.
+     *
+     * @return The upper bound, clamped to the int domain.
+     */
+    public int getIntMax() {
+        return (int) Math.min(max, Integer.MAX_VALUE);
+    }
+}
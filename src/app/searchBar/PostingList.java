@@ -0,0 +1,110 @@
+package app.searchBar;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Growable, ascending list of song positions used by the search indexes.
+ * Positions are appended in library order, so every list stays sorted.
+ */
+final class PostingList implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int INITIAL_CAPACITY = 4;
+    private int[] positions;
+    private int size;
+
+    PostingList() {
+        this.positions = new int[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    private PostingList(final int[] positions, final int size) {
+        this.positions = positions;
+        this.size = size;
+    }
+
+    /**
+     * Appends a position, which must be greater than every position already stored.
+     *
+     * @param position The library position to append.
+     */
+    void add(final int position) {
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size * 2);
+        }
+        positions[size++] = position;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(final int index) {
+        return positions[index];
+    }
+
+    /**
+     * Intersects two sorted posting lists.
+     *
+     * @param other The list to intersect with.
+     * @return A new list containing the positions present in both lists.
+     */
+    PostingList intersect(final PostingList other) {
+        int[] result = new int[Math.min(size, other.size)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (positions[i] < other.positions[j]) {
+                i++;
+            } else if (positions[i] > other.positions[j]) {
+                j++;
+            } else {
+                result[count++] = positions[i];
+                i++;
+                j++;
+            }
+        }
+        return new PostingList(result, count);
+    }
+
+    /**
+     * Merges several sorted posting lists into one sorted list.
+     * The lists are expected to be disjoint.
+     *
+     * @param lists The lists to merge.
+     * @return A new list containing every position, in ascending order.
+     */
+    static PostingList union(final List<PostingList> lists) {
+        if (lists.size() == 1) {
+            return lists.get(0);
+        }
+        int total = 0;
+        for (PostingList list : lists) {
+            total += list.size;
+        }
+        int[] result = new int[total];
+        int count = 0;
+        for (PostingList list : lists) {
+            System.arraycopy(list.positions, 0, result, count, list.size);
+            count += list.size;
+        }
+        Arrays.sort(result);
+        return new PostingList(result, total);
+    }
+
+    /**
+     * Builds the list of every position from zero up to the given bound.
+     *
+     * @param bound The exclusive upper bound.
+     * @return A list holding 0, 1, ..., bound - 1.
+     */
+    static PostingList range(final int bound) {
+        int[] result = new int[bound];
+        for (int i = 0; i < bound; i++) {
+            result[i] = i;
+        }
+        return new PostingList(result, bound);
+    }
+}
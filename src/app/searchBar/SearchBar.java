@@ -2,25 +2,19 @@ package app.searchBar;
 
 
 import app.Admin;
+import app.audio.Collections.Playlist;
 import app.audio.LibraryEntry;
 import lombok.Getter;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
-//import static app.searchBar.FilterUtils.*;
-import static app.searchBar.FilterUtils.filterByFollowers;
-import static app.searchBar.FilterUtils.filterByName;
-import static app.searchBar.FilterUtils.filterByAlbum;
-import static app.searchBar.FilterUtils.filterByArtist;
-import static app.searchBar.FilterUtils.filterByGenre;
-import static app.searchBar.FilterUtils.filterByLyrics;
-import static app.searchBar.FilterUtils.filterByOwner;
-import static app.searchBar.FilterUtils.filterByPlaylistVisibility;
-import static app.searchBar.FilterUtils.filterByReleaseYear;
-import static app.searchBar.FilterUtils.filterByTags;
+import static app.searchBar.FilterUtils.byNamePrefix;
+import static app.searchBar.FilterUtils.firstMatches;
 
-public class SearchBar {
+public class SearchBar implements Serializable {
+    private static final long serialVersionUID = 1L;
     private List<LibraryEntry> results;
     private final String user;
     private static final Integer MAX_RESULTS = 5;
@@ -43,6 +37,14 @@ public class SearchBar {
         lastSelected = null;
         lastSearchType = null;
     }
+    /**
+     * Checks if nothing is selected, so a later load or follow has nothing to read.
+     *
+     * @return True if no entry is selected.
+     */
+    public boolean isIdle() {
+        return lastSelected == null;
+    }
     /**
      * Searches for library entries based on specified filters and type.
      *
@@ -60,79 +62,63 @@ public class SearchBar {
 
         switch (type) {
             case "song":
-                entries = new ArrayList<>(Admin.getSongs());
-
-                if (filters.getName() != null) {
-                    entries = filterByName(entries, filters.getName());
-                }
-
-                if (filters.getAlbum() != null) {
-                    entries = filterByAlbum(entries, filters.getAlbum());
-                }
-
-                if (filters.getTags() != null) {
-                    entries = filterByTags(entries, filters.getTags());
-                }
-
-                if (filters.getLyrics() != null) {
-                    entries = filterByLyrics(entries, filters.getLyrics());
-                }
-
-                if (filters.getGenre() != null) {
-                    entries = filterByGenre(entries, filters.getGenre());
-                }
-
-                if (filters.getReleaseYear() != null) {
-                    entries = filterByReleaseYear(entries, filters.getReleaseYear());
-                }
-
-                if (filters.getArtist() != null) {
-                    entries = filterByArtist(entries, filters.getArtist());
-                }
+                entries = new ArrayList<>(Admin.getSongIndex().search(filters, MAX_RESULTS));
 
                 break;
             case "playlist":
-                entries = new ArrayList<>(Admin.getPlaylists());
-
-                entries = filterByPlaylistVisibility(entries, user);
-
-                if (filters.getName() != null) {
-                    entries = filterByName(entries, filters.getName());
-                }
-
-                if (filters.getOwner() != null) {
-                    entries = filterByOwner(entries, filters.getOwner());
-                }
-
-                if (filters.getFollowers() != null) {
-                    entries = filterByFollowers(entries, filters.getFollowers());
-                }
+                NumberRange followers = filters.parseFollowers();
+                entries = firstMatches(Admin.getPlaylistIndex().candidates(user,
+                        filters.getOwner(), filters.getName(), followers),
+                        playlistCriteria(filters, followers), MAX_RESULTS);
 
                 break;
             case "podcast":
-                entries = new ArrayList<>(Admin.getPodcasts());
-
-                if (filters.getName() != null) {
-                    entries = filterByName(entries, filters.getName());
-                }
-
-                if (filters.getOwner() != null) {
-                    entries = filterByOwner(entries, filters.getOwner());
-                }
+                entries = firstMatches(Admin.getPodcasts(), podcastCriteria(filters),
+                        MAX_RESULTS);
 
                 break;
             default:
                 entries = new ArrayList<>();
         }
 
-        while (entries.size() > MAX_RESULTS) {
-            entries.remove(entries.size() - 1);
-        }
-
         this.results = entries;
         this.lastSearchType = type;
         return this.results;
     }
+    /**
+     * Compiles the playlist filters into criteria, cheapest and most selective
+     * first: the owner is a single string comparison, followers compare a field
+     * with the range parsed once, and the name prefix lower-cases the playlist
+     * name. Visibility needs no check, as the playlist index only returns
+     * playlists the user can see.
+     */
+    private static List<FilterUtils.FilterCriteria> playlistCriteria(
+            final Filters filters, final NumberRange followers) {
+        List<FilterUtils.FilterCriteria> criteria = new ArrayList<>();
+        if (filters.getOwner() != null) {
+            criteria.add(entry -> entry.matchesOwner(filters.getOwner()));
+        }
+        if (followers != null) {
+            criteria.add(entry -> followers.contains(((Playlist) entry).getFollowers()));
+        }
+        if (filters.getName() != null) {
+            criteria.add(byNamePrefix(filters.getName()));
+        }
+        return criteria;
+    }
+    /**
+     * Compiles the podcast filters into criteria, the owner comparison first.
+     */
+    private static List<FilterUtils.FilterCriteria> podcastCriteria(final Filters filters) {
+        List<FilterUtils.FilterCriteria> criteria = new ArrayList<>();
+        if (filters.getOwner() != null) {
+            criteria.add(entry -> entry.matchesOwner(filters.getOwner()));
+        }
+        if (filters.getName() != null) {
+            criteria.add(byNamePrefix(filters.getName()));
+        }
+        return criteria;
+    }
     /**
      * Selects a library entry from the search results based on the provided item number.
      *
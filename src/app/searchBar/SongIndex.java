@@ -0,0 +1,304 @@
+package app.searchBar;
+
+import app.audio.Files.Catalogue;
+import app.audio.Files.Song;
+import app.audio.Files.SongStore;
+import app.audio.LibraryEntry;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Inverted index over the song library. Every song is identified by its row
+ * in the {@link SongStore}, and each searchable field keeps a sorted posting list
+ * of rows, so a query is answered by intersecting postings instead of scanning
+ * every song. Queries that no posting list narrows fall back to a {@link SongScan}.
+ * <p>
+ * Release years are a small dense domain, so they are bucketed in an array
+ * indexed by year, and a year range is answered from its buckets without
+ * merging and sorting them up front. Alone, the range walks its buckets in
+ * library order until enough songs are found. With other filters, a single
+ * year joins the intersection when it is the most selective posting list;
+ * otherwise the range is checked on the year column of the candidates, which
+ * costs no more than intersecting and stops as soon as enough songs are found.
+ */
+public final class SongIndex implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final SongStore store;
+    private int size;
+    private final Map<String, PostingList> genres = new HashMap<>();
+    private final Map<String, PostingList> albums = new HashMap<>();
+    private final Map<String, PostingList> artists = new HashMap<>();
+    private final Map<String, PostingList> tags = new HashMap<>();
+    private final Map<String, PostingList> lyricsTokens = new HashMap<>();
+    private final NavigableMap<String, PostingList> names = new TreeMap<>();
+    // yearBuckets[i] holds the songs released in firstYear + i, or null if there are none
+    private PostingList[] yearBuckets = new PostingList[0];
+    private int firstYear;
+
+    /**
+     * @param store The store whose rows are indexed.
+     */
+    public SongIndex(final SongStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Indexes the next row of the store. Fields the song does not have are
+     * left out of their posting lists, so no filter on them matches the song.
+     *
+     * @param song The song stored in that row.
+     */
+    public void add(final Song song) {
+        int position = size++;
+
+        if (song.getName() != null) {
+            post(names, song.getName().toLowerCase(), position);
+        }
+        if (song.getGenre() != null) {
+            post(genres, Catalogue.fold(song.getGenre()), position);
+        }
+        if (song.getAlbum() != null) {
+            post(albums, Catalogue.fold(song.getAlbum()), position);
+        }
+        if (song.getArtist() != null) {
+            post(artists, Catalogue.fold(song.getArtist()), position);
+        }
+        postYear(song.getReleaseYear(), position);
+
+        List<String> tagValues = song.getTags();
+        if (tagValues != null) {
+            Set<String> songTags = new HashSet<>();
+            for (String tag : tagValues) {
+                if (tag != null) {
+                    songTags.add(tag.toLowerCase());
+                }
+            }
+            for (String tag : songTags) {
+                post(tags, tag, position);
+            }
+        }
+
+        String lyrics = song.getLyrics();
+        if (lyrics != null) {
+            for (String token : tokenize(lyrics.toLowerCase(), false)) {
+                post(lyricsTokens, token, position);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of indexed songs.
+     *
+     * @return The library size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the songs matching every filter that is set, in library order.
+     *
+     * @param filters The filters to apply.
+     * @param limit   The maximum number of songs to return.
+     * @return The first {@code limit} matching songs.
+     */
+    public List<LibraryEntry> search(final Filters filters, final int limit) {
+        List<PostingList> postings = new ArrayList<>();
+
+        if (filters.getName() != null) {
+            postings.add(matchPrefix(filters.getName().toLowerCase()));
+        }
+        if (filters.getAlbum() != null) {
+            postings.add(albums.get(Catalogue.fold(filters.getAlbum())));
+        }
+        if (filters.getTags() != null) {
+            for (String tag : filters.getTags()) {
+                postings.add(tags.get(tag.toLowerCase()));
+            }
+        }
+        if (filters.getLyrics() != null) {
+            for (String token : tokenize(filters.getLyrics().toLowerCase(), true)) {
+                postings.add(lyricsTokens.get(token));
+            }
+        }
+        if (filters.getGenre() != null) {
+            postings.add(genres.get(Catalogue.fold(filters.getGenre())));
+        }
+        if (filters.getArtist() != null) {
+            postings.add(artists.get(Catalogue.fold(filters.getArtist())));
+        }
+
+        List<LibraryEntry> result = new ArrayList<>();
+        if (postings.contains(null)) {
+            return result;
+        }
+
+        NumberRange years = filters.getReleaseYearRange();
+        List<PostingList> buckets = years == null ? null : matchReleaseYears(years);
+        if (buckets != null && buckets.isEmpty()) {
+            return result;
+        }
+
+        if (postings.isEmpty()) {
+            if (buckets == null) {
+                return SongScan.scan(store, filters, limit);
+            }
+            return firstInBuckets(buckets, filters, limit);
+        }
+
+        postings.sort(Comparator.comparingInt(PostingList::size));
+        if (buckets != null && buckets.size() == 1
+                && buckets.get(0).size() <= postings.get(0).size()) {
+            // a single year is a posting list as it is, and the most selective one
+            postings.add(0, buckets.get(0));
+            years = null;
+        }
+
+        PostingList candidates = null;
+        for (PostingList posting : postings) {
+            candidates = candidates == null ? posting : candidates.intersect(posting);
+            if (candidates.size() == 0) {
+                return result;
+            }
+        }
+
+        // token postings only narrow the lyrics filter, the substring check is still needed
+        for (int i = 0; i < candidates.size() && result.size() < limit; i++) {
+            int row = candidates.get(i);
+            if (years == null || years.contains(store.getReleaseYear(row))) {
+                addIfLyricsMatch(result, row, filters);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the first songs of several year buckets, in library order, by
+     * merging the buckets only as far as the results need.
+     */
+    private List<LibraryEntry> firstInBuckets(final List<PostingList> buckets,
+                                              final Filters filters, final int limit) {
+        List<LibraryEntry> result = new ArrayList<>();
+        int[] next = new int[buckets.size()];
+        while (result.size() < limit) {
+            int bucket = -1;
+            int row = Integer.MAX_VALUE;
+            for (int i = 0; i < next.length; i++) {
+                PostingList posting = buckets.get(i);
+                if (next[i] < posting.size() && posting.get(next[i]) < row) {
+                    bucket = i;
+                    row = posting.get(next[i]);
+                }
+            }
+            if (bucket < 0) {
+                break;
+            }
+            next[bucket]++;
+            addIfLyricsMatch(result, row, filters);
+        }
+        return result;
+    }
+
+    private void addIfLyricsMatch(final List<LibraryEntry> result, final int row,
+                                  final Filters filters) {
+        Song song = store.get(row);
+        if (filters.getLyrics() == null || song.matchesLyrics(filters.getLyrics())) {
+            result.add(song);
+        }
+    }
+
+    private PostingList matchPrefix(final String prefix) {
+        List<PostingList> matches = new ArrayList<>();
+        for (Map.Entry<String, PostingList> entry : names.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            matches.add(entry.getValue());
+        }
+        return matches.isEmpty() ? null : PostingList.union(matches);
+    }
+
+    /**
+     * Gets the non-empty year buckets in a range.
+     */
+    private List<PostingList> matchReleaseYears(final NumberRange years) {
+        List<PostingList> matches = new ArrayList<>();
+        if (years.isEmptyForInts()) {
+            return matches;
+        }
+        long from = Math.max((long) years.getIntMin() - firstYear, 0);
+        long to = Math.min((long) years.getIntMax() - firstYear, yearBuckets.length - 1L);
+        for (long i = from; i <= to; i++) {
+            if (yearBuckets[(int) i] != null) {
+                matches.add(yearBuckets[(int) i]);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Adds a position to the bucket of its year, widening the bucket array
+     * when the year is outside the years seen so far.
+     */
+    private void postYear(final int year, final int position) {
+        if (yearBuckets.length == 0) {
+            firstYear = year;
+        }
+        if (year < firstYear) {
+            PostingList[] widened = new PostingList[yearBuckets.length + firstYear - year];
+            System.arraycopy(yearBuckets, 0, widened, firstYear - year, yearBuckets.length);
+            yearBuckets = widened;
+            firstYear = year;
+        } else if (year - firstYear >= yearBuckets.length) {
+            yearBuckets = Arrays.copyOf(yearBuckets, year - firstYear + 1);
+        }
+        if (yearBuckets[year - firstYear] == null) {
+            yearBuckets[year - firstYear] = new PostingList();
+        }
+        yearBuckets[year - firstYear].add(position);
+    }
+
+    private static <K> void post(final Map<K, PostingList> index,
+                                 final K key, final int position) {
+        index.computeIfAbsent(key, k -> new PostingList()).add(position);
+    }
+
+    /**
+     * Splits text into distinct runs of letters and digits.
+     *
+     * @param text         The (already lowercased) text.
+     * @param interiorOnly Whether to keep only runs bounded on both sides by other
+     *                     characters. Those are the only runs of a query that must
+     *                     appear as whole tokens in any lyrics containing it.
+     * @return The distinct tokens.
+     */
+    private static Set<String> tokenize(final String text, final boolean interiorOnly) {
+        Set<String> tokens = new HashSet<>();
+        int start = 0;
+        while (start < text.length()) {
+            if (!Character.isLetterOrDigit(text.charAt(start))) {
+                start++;
+                continue;
+            }
+            int end = start;
+            while (end < text.length() && Character.isLetterOrDigit(text.charAt(end))) {
+                end++;
+            }
+            if (!interiorOnly || (start > 0 && end < text.length())) {
+                tokens.add(text.substring(start, end));
+            }
+            start = end;
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,110 @@
+package app.searchBar;
+
+import app.audio.Files.Catalogue;
+import app.audio.Files.SongStore;
+import app.audio.LibraryEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Full scan of a {@link SongStore} against a set of filters. The filter values
+ * are resolved once, to catalogue match ids and a release year range, and every
+ * row is then checked on the primitive columns before the string fields.
+ * The result is the same as calling the {@code matches*} methods of every song.
+ */
+public final class SongScan {
+    private static final int ANY = -2;
+
+    private SongScan() {
+    }
+
+    /**
+     * Finds the songs matching every filter that is set, in row order.
+     *
+     * @param store   The songs to scan.
+     * @param filters The filters to apply.
+     * @param limit   The maximum number of songs to return.
+     * @return The first {@code limit} matching songs.
+     */
+    public static List<LibraryEntry> scan(final SongStore store, final Filters filters,
+                                          final int limit) {
+        List<LibraryEntry> result = new ArrayList<>();
+        Catalogue catalogue = store.getCatalogue();
+        Catalogue.Dictionary genres = catalogue.getGenres();
+        Catalogue.Dictionary artists = catalogue.getArtists();
+        Catalogue.Dictionary albums = catalogue.getAlbums();
+        Catalogue.Dictionary tagDictionary = catalogue.getTags();
+
+        int genre = resolve(genres, filters.getGenre());
+        int artist = resolve(artists, filters.getArtist());
+        int album = resolve(albums, filters.getAlbum());
+        if (genre == Catalogue.ABSENT || artist == Catalogue.ABSENT
+                || album == Catalogue.ABSENT) {
+            return result;
+        }
+
+        int[] tags = new int[filters.getTags() == null ? 0 : filters.getTags().size()];
+        for (int i = 0; i < tags.length; i++) {
+            tags[i] = tagDictionary.findMatchId(filters.getTags().get(i));
+            if (tags[i] == Catalogue.ABSENT) {
+                return result;
+            }
+        }
+
+        NumberRange releaseYears = filters.getReleaseYearRange();
+        long minYear = releaseYears == null ? Long.MIN_VALUE : releaseYears.getMin();
+        long maxYear = releaseYears == null ? Long.MAX_VALUE : releaseYears.getMax();
+
+        String name = filters.getName() == null ? null : filters.getName().toLowerCase();
+        String lyrics = filters.getLyrics() == null ? null : filters.getLyrics().toLowerCase();
+
+        for (int row = 0; row < store.size() && result.size() < limit; row++) {
+            if (genre != ANY && genres.matchId(store.getGenre(row)) != genre) {
+                continue;
+            }
+            if (artist != ANY && artists.matchId(store.getArtist(row)) != artist) {
+                continue;
+            }
+            if (album != ANY && albums.matchId(store.getAlbum(row)) != album) {
+                continue;
+            }
+            int year = store.getReleaseYear(row);
+            if (year < minYear || year > maxYear) {
+                continue;
+            }
+            if (!hasTags(store, tagDictionary, row, tags)) {
+                continue;
+            }
+            if (name != null
+                    && !store.get(row).getName().toLowerCase().startsWith(name)) {
+                continue;
+            }
+            if (lyrics != null && !store.getLyrics(row).toLowerCase().contains(lyrics)) {
+                continue;
+            }
+            result.add(store.get(row));
+        }
+        return result;
+    }
+
+    private static int resolve(final Catalogue.Dictionary dictionary, final String query) {
+        return query == null ? ANY : dictionary.findMatchId(query);
+    }
+
+    private static boolean hasTags(final SongStore store, final Catalogue.Dictionary dictionary,
+                                   final int row, final int[] tags) {
+        int start = store.getTagsStart(row);
+        int end = store.getTagsEnd(row);
+        for (int tag : tags) {
+            boolean found = false;
+            for (int i = start; i < end && !found; i++) {
+                found = dictionary.matchId(store.getTag(i)) == tag;
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -14,6 +14,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 public final class Artist extends User {
+    private static final long serialVersionUID = 1L;
     private String name;
     private Integer releaseYear;
     private ArrayList<Album> albums;
@@ -89,6 +90,9 @@ public final class Artist extends User {
         this.albums.add(album);
         Admin.getAlbums().add(album);
         Admin.addSongs(album.getSongs());
+        if (Admin.getJournal() != null) {
+            Admin.getJournal().addAlbum(commandInput);
+        }
         return commandInput.getUsername() + " has added new album successfully.";
     }
     /**
@@ -109,6 +113,9 @@ public final class Artist extends User {
         }
 
         events.add(event);
+        if (Admin.getJournal() != null) {
+            Admin.getJournal().addEvent(commandInput);
+        }
         return commandInput.getUsername() + " has added new event successfully.";
     }
 
@@ -128,6 +135,9 @@ public final class Artist extends User {
         }
 
         merches.add(merch);
+        if (Admin.getJournal() != null) {
+            Admin.getJournal().addMerch(commandInput);
+        }
         return commandInput.getUsername() + " has added new merchandise successfully.";
     }
 
@@ -0,0 +1,211 @@
+package app.user;
+
+import app.audio.Files.Song;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The songs a user liked, in the order they were liked. Each liked song is a
+ * node in a linked list threaded through a hash map, so liking and unliking are
+ * O(1), and every genre keeps a running count of its liked songs. The preferred
+ * genre is the most liked one; on a tie it is the genre that reached that count
+ * first, going through the liked songs in order. It is serialized as the list
+ * of its songs, in order, and rebuilt from it.
+ */
+final class LikedSongs extends AbstractCollection<Song> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final Map<Song, Node> nodes = new HashMap<>();
+    private final Map<String, GenreCount> genres = new HashMap<>();
+    private Node head;
+    private Node tail;
+    private long likes;
+
+    @Override
+    public int size() {
+        return nodes.size();
+    }
+
+    @Override
+    public boolean contains(final Object song) {
+        return nodes.containsKey(song);
+    }
+
+    /**
+     * Likes a song, unless it is already liked.
+     *
+     * @param song The song to like.
+     * @return {@code true} if the song was not liked before.
+     */
+    @Override
+    public boolean add(final Song song) {
+        if (nodes.containsKey(song)) {
+            return false;
+        }
+        GenreCount genre = genres.computeIfAbsent(song.getGenre(), GenreCount::new);
+        Node node = new Node(song, genre, likes++);
+        nodes.put(song, node);
+
+        node.prev = tail;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+
+        node.prevInGenre = genre.last;
+        if (genre.last != null) {
+            genre.last.nextInGenre = node;
+        }
+        genre.last = node;
+        genre.count++;
+        return true;
+    }
+
+    /**
+     * Unlikes a song.
+     *
+     * @param song The song to unlike.
+     * @return {@code true} if the song was liked.
+     */
+    @Override
+    public boolean remove(final Object song) {
+        Node node = nodes.remove(song);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    @Override
+    public Iterator<Song> iterator() {
+        return new Iterator<>() {
+            private Node next = head;
+            private Node last;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Song next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = next.next;
+                return last.song;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                nodes.remove(last.song);
+                unlink(last);
+                last = null;
+            }
+        };
+    }
+
+    /**
+     * Gets the genre with the most liked songs. Since the count of a genre
+     * reaches its final value at its latest liked song, among the genres tied for
+     * the most likes the one whose latest liked song came first wins.
+     *
+     * @return The preferred genre, or {@code null} if no song is liked.
+     */
+    String getPreferredGenre() {
+        GenreCount preferred = null;
+        for (GenreCount genre : genres.values()) {
+            if (preferred == null || genre.count > preferred.count
+                    || (genre.count == preferred.count
+                    && genre.last.order < preferred.last.order)) {
+                preferred = genre;
+            }
+        }
+        return preferred == null ? null : preferred.name;
+    }
+
+    private Object writeReplace() {
+        return new SerializedForm(toArray(new Song[0]));
+    }
+
+    private void unlink(final Node node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+
+        GenreCount genre = node.genre;
+        if (node.prevInGenre != null) {
+            node.prevInGenre.nextInGenre = node.nextInGenre;
+        }
+        if (node.nextInGenre == null) {
+            genre.last = node.prevInGenre;
+        } else {
+            node.nextInGenre.prevInGenre = node.prevInGenre;
+        }
+        if (--genre.count == 0) {
+            genres.remove(genre.name);
+        }
+    }
+
+    private static final class SerializedForm implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final Song[] songs;
+
+        private SerializedForm(final Song[] songs) {
+            this.songs = songs;
+        }
+
+        private Object readResolve() {
+            LikedSongs likedSongs = new LikedSongs();
+            for (Song song : songs) {
+                likedSongs.add(song);
+            }
+            return likedSongs;
+        }
+    }
+
+    private static final class Node {
+        private final Song song;
+        private final GenreCount genre;
+        private final long order;
+        private Node prev;
+        private Node next;
+        private Node prevInGenre;
+        private Node nextInGenre;
+
+        private Node(final Song song, final GenreCount genre, final long order) {
+            this.song = song;
+            this.genre = genre;
+            this.order = order;
+        }
+    }
+
+    private static final class GenreCount {
+        private final String name;
+        private int count;
+        private Node last;
+
+        private GenreCount(final String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package app.user;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+/**
+ * The normal users that are currently online, ordered by registration. A user
+ * is added or removed whenever its status or type changes, so listing the online
+ * users only walks the users that are online.
+ */
+public final class OnlineUsers implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final TreeMap<Integer, User> online = new TreeMap<>();
+    private int registered;
+
+    /**
+     * Registers a user added to the admin, after all the users registered before.
+     *
+     * @param user The new user.
+     */
+    public void register(final User user) {
+        user.attach(this, registered++);
+        update(user);
+    }
+
+    /**
+     * Adds or removes a registered user, after its status or type changed.
+     *
+     * @param user The user that changed.
+     */
+    void update(final User user) {
+        if (user.isStatus() && user.getType() == null) {
+            online.put(user.getRegistration(), user);
+        } else {
+            online.remove(user.getRegistration());
+        }
+    }
+
+    /**
+     * Gets the usernames of the online users.
+     *
+     * @return The usernames, in registration order.
+     */
+    public ArrayList<String> getUsernames() {
+        ArrayList<String> usernames = new ArrayList<>(online.size());
+        for (User user : online.values()) {
+            usernames.add(user.getUsername());
+        }
+        return usernames;
+    }
+}
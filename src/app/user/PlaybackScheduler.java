@@ -0,0 +1,113 @@
+package app.user;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Keeps the absolute time at which each playing user's current track ends.
+ * Advancing the clock only simulates the users whose track boundary falls in the
+ * elapsed window; every other user catches up lazily the next time it is read.
+ * <p>
+ * A rescheduled user leaves its previous entry in the queue, where it is skipped
+ * when it comes up. Once these stale entries make up more than half of the queue,
+ * it is rebuilt without them, so users who seek or skip often do not grow it.
+ */
+public final class PlaybackScheduler implements Serializable {
+    private static final long serialVersionUID = 1L;
+    static final int NO_DEADLINE = -1;
+
+    private final PriorityQueue<Deadline> deadlines = new PriorityQueue<>();
+    private final Set<User> touched = new HashSet<>();
+    private int stale;
+
+    /**
+     * Marks a user whose playback may have changed, so its deadline is
+     * recomputed before the clock moves again.
+     *
+     * @param user The user that was read or changed.
+     */
+    void touch(final User user) {
+        touched.add(user);
+    }
+
+    /**
+     * Advances the clock, simulating the users whose current track ends
+     * at or before the new time.
+     *
+     * @param now The new timestamp.
+     */
+    public void advance(final int now) {
+        for (User user : touched) {
+            schedule(user);
+        }
+        touched.clear();
+
+        while (!deadlines.isEmpty() && deadlines.peek().getTime() <= now) {
+            Deadline deadline = deadlines.poll();
+            deadline.queued = false;
+            User user = deadline.getUser();
+            if (user.getDeadline() == deadline) {
+                user.sync();
+            } else {
+                stale--;
+            }
+        }
+
+        for (User user : touched) {
+            schedule(user);
+        }
+        touched.clear();
+    }
+
+    private void schedule(final User user) {
+        int time = user.nextDeadline();
+        Deadline current = user.getDeadline();
+        if (time == (current == null ? NO_DEADLINE : current.getTime())) {
+            return;
+        }
+        if (current != null && current.queued) {
+            stale++;
+        }
+        if (time == NO_DEADLINE) {
+            user.setDeadline(null);
+        } else {
+            Deadline deadline = new Deadline(time, user);
+            user.setDeadline(deadline);
+            deadlines.add(deadline);
+        }
+        if (stale > deadlines.size() / 2) {
+            deadlines.removeIf(deadline -> deadline.getUser().getDeadline() != deadline);
+            stale = 0;
+        }
+    }
+
+    /**
+     * The time a user's current track ends, as an entry of the queue.
+     */
+    static final class Deadline implements Comparable<Deadline>, Serializable {
+        private static final long serialVersionUID = 1L;
+        private final int time;
+        private final User user;
+        private boolean queued = true;
+
+        Deadline(final int time, final User user) {
+            this.time = time;
+            this.user = user;
+        }
+
+        int getTime() {
+            return time;
+        }
+
+        User getUser() {
+            return user;
+        }
+
+        @Override
+        public int compareTo(final Deadline other) {
+            return Integer.compare(time, other.time);
+        }
+    }
+}
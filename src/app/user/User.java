@@ -15,10 +15,15 @@ import app.utils.Enums;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
-public class User {
+public class User implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     @Getter
     private String username;
     @Getter
@@ -26,18 +31,17 @@ public class User {
     @Getter
     private String city;
     @Getter
-    @Setter
     private String type;
     @Getter
     private ArrayList<Playlist> playlists;
-    @Getter
-    private ArrayList<Song> likedSongs;
+    // allocated on the first like
+    private LikedSongs likedSongs;
     @Getter
     private ArrayList<Playlist> followedPlaylists;
-    private final Player player;
-    private final SearchBar searchBar;
+    // allocated on first use and dropped again when an idle user goes offline
+    private Player player;
+    private SearchBar searchBar;
     private boolean lastSearched;
-    @Setter
     @Getter
     private boolean status = true;
     @Getter
@@ -49,6 +53,10 @@ public class User {
     @Getter
     @Setter
     private String lastSearchedArtist;
+    private int syncedAt;
+    private PlaybackScheduler.Deadline deadline;
+    private OnlineUsers onlineUsers;
+    private int registration;
 
     /**
      * Constructs a new User with the given parameters.
@@ -65,11 +73,9 @@ public class User {
         this.city = city;
         this.type = type;
         playlists = new ArrayList<>();
-        likedSongs = new ArrayList<>();
         followedPlaylists = new ArrayList<>();
-        player = new Player();
-        searchBar = new SearchBar(username);
         lastSearched = false;
+        syncedAt = Admin.getTimestamp();
     }
     /**
      * Checks if the user is an artist.
@@ -87,8 +93,11 @@ public class User {
      * @return A list of search results.
      */
     public ArrayList<String> search(final Filters filters, final String searchType) {
-        searchBar.clearSelection();
-        player.stop();
+        sync();
+        searchBar().clearSelection();
+        if (player != null) {
+            player.stop();
+        }
 
         lastSearched = true;
         ArrayList<String> results = new ArrayList<>();
@@ -102,7 +111,7 @@ public class User {
                 }
             }
         } else {
-            List<LibraryEntry> libraryEntries = searchBar.search(filters, searchType);
+            List<LibraryEntry> libraryEntries = searchBar().search(filters, searchType);
             for (LibraryEntry libraryEntry : libraryEntries) {
                 results.add(libraryEntry.getName());
             }
@@ -124,7 +133,7 @@ public class User {
 
         lastSearched = false;
 
-        LibraryEntry selected = searchBar.select(itemNumber);
+        LibraryEntry selected = searchBar().select(itemNumber);
 
         if (!searchArtist) {
             if (selected == null) {
@@ -140,7 +149,8 @@ public class User {
      * @return A message indicating the success or failure of the load operation.
      */
     public String load() {
-        if (searchBar.getLastSelected() == null) {
+        sync();
+        if (searchBar == null || searchBar.getLastSelected() == null) {
             return "Please select a source before attempting to load.";
         }
         if (!searchBar.getLastSearchType().equals("song")
@@ -149,7 +159,7 @@ public class User {
             return "You can't load an empty audio collection!";
         }
 
-        player.setSource(searchBar.getLastSelected(), searchBar.getLastSearchType());
+        player().setSource(searchBar.getLastSelected(), searchBar.getLastSearchType());
         searchBar.clearSelection();
 
         player.pause();
@@ -162,7 +172,8 @@ public class User {
      * @return A message indicating the success or failure of the operation.
      */
     public String playPause() {
-        if (player.getCurrentAudioFile() == null) {
+        sync();
+        if (currentAudioFile() == null) {
             return "Please load a source before attempting to pause or resume playback.";
         }
         player.pause();
@@ -179,7 +190,8 @@ public class User {
      * @return A message indicating the new repeat mode.
      */
     public String repeat() {
-        if (player.getCurrentAudioFile() == null) {
+        sync();
+        if (currentAudioFile() == null) {
             return "Please load a source before setting the repeat status.";
         }
         Enums.RepeatMode repeatMode = player.repeat();
@@ -214,7 +226,8 @@ public class User {
      * @return A message indicating the success or failure of the shuffle operation.
      */
     public String shuffle(final Integer seed) {
-        if (player.getCurrentAudioFile() == null) {
+        sync();
+        if (currentAudioFile() == null) {
             return "Please load a source before using the shuffle function.";
         }
         if (!player.getType().equals("playlist")) {
@@ -233,7 +246,8 @@ public class User {
      * @return A message indicating the success or failure of the skip operation.
      */
     public String forward() {
-        if (player.getCurrentAudioFile() == null) {
+        sync();
+        if (currentAudioFile() == null) {
             return "Please load a source before attempting to forward.";
         }
 
@@ -251,7 +265,8 @@ public class User {
      * @return A message indicating the success or failure of the rewind operation.
      */
     public String backward() {
-        if (player.getCurrentAudioFile() == null) {
+        sync();
+        if (currentAudioFile() == null) {
             return "Please select a source before rewinding.";
         }
 
@@ -269,7 +284,8 @@ public class User {
      * @return A message indicating the success or failure of the like operation.
      */
     public String like() {
-        if (player.getCurrentAudioFile() == null) {
+        sync();
+        if (currentAudioFile() == null) {
             return "Please load a source before liking or unliking.";
         }
 
@@ -277,32 +293,50 @@ public class User {
             return "Loaded source is not a song.";
         }
 
-        Song song = (Song) player.getCurrentAudioFile();
-
-        if (likedSongs.contains(song)) {
-            likedSongs.remove(song);
-            song.dislike();
-
+        if (!toggleLike((Song) player.getCurrentAudioFile())) {
             return "Unlike registered successfully.";
         }
-
-        likedSongs.add(song);
-        song.like();
         return "Like registered successfully.";
     }
+    /**
+     * Likes a song, or unlikes it if it is already liked.
+     *
+     * @param song The song.
+     * @return True if the song is now liked, false if it was unliked.
+     */
+    public boolean toggleLike(final Song song) {
+        boolean liked;
+        if (likedSongs != null && likedSongs.remove(song)) {
+            song.dislike();
+            liked = false;
+        } else {
+            if (likedSongs == null) {
+                likedSongs = new LikedSongs();
+            }
+            likedSongs.add(song);
+            song.like();
+            liked = true;
+        }
+
+        if (Admin.getJournal() != null) {
+            Admin.getJournal().like(this, song);
+        }
+        return liked;
+    }
     /**
      * Skips to the next track in the current source.
      *
      * @return A message indicating the success or failure of the skip operation.
      */
     public String next() {
-        if (player.getCurrentAudioFile() == null) {
+        sync();
+        if (currentAudioFile() == null) {
             return "Please load a source before skipping to the next track.";
         }
 
         player.next();
 
-        if (player.getCurrentAudioFile() == null) {
+        if (currentAudioFile() == null) {
             return "Please load a source before skipping to the next track.";
         }
 
@@ -315,7 +349,8 @@ public class User {
      * @return A message indicating the success or failure of the return operation.
      */
     public String prev() {
-        if (player.getCurrentAudioFile() == null) {
+        sync();
+        if (currentAudioFile() == null) {
             return "Please load a source before returning to the previous track.";
         }
 
@@ -335,8 +370,14 @@ public class User {
         if (playlists.stream().anyMatch(playlist -> playlist.getName().equals(name))) {
             return "A playlist with the same name already exists.";
         }
-        playlists.add(new Playlist(name, username, timestamp));
+        Playlist playlist = new Playlist(name, username, timestamp);
+        playlists.add(playlist);
+        Admin.getPlaylistRanking().add(playlist);
+        Admin.getPlaylistIndex().add(playlist);
 
+        if (Admin.getJournal() != null) {
+            Admin.getJournal().createPlaylist(this, name, timestamp);
+        }
         return "Playlist created successfully.";
     }
     /**
@@ -346,7 +387,8 @@ public class User {
      * @return A message indicating the success or failure of the add/remove operation.
      */
     public String addRemoveInPlaylist(final int Id) {
-        if (player.getCurrentAudioFile() == null) {
+        sync();
+        if (currentAudioFile() == null) {
             return "Please load a source before adding to or removing from the playlist.";
         }
         if (player.getType().equals("podcast")) {
@@ -355,16 +397,32 @@ public class User {
         if (Id > playlists.size()) {
             return "The specified playlist does not exist.";
         }
-        Playlist playlist = playlists.get(Id - 1);
-
-        if (playlist.containsSong((Song) player.getCurrentAudioFile())) {
-            playlist.removeSong((Song) player.getCurrentAudioFile());
+        if (!toggleInPlaylist(Id, (Song) player.getCurrentAudioFile())) {
             return "Successfully removed from playlist.";
         }
-
-        playlist.addSong((Song) player.getCurrentAudioFile());
         return "Successfully added to playlist.";
     }
+    /**
+     * Adds a song to one of the user's playlists, or removes it if it is already there.
+     *
+     * @param playlistId The ID of the playlist.
+     * @param song       The song.
+     * @return True if the song was added, false if it was removed.
+     */
+    public boolean toggleInPlaylist(final int playlistId, final Song song) {
+        Playlist playlist = playlists.get(playlistId - 1);
+        boolean added = !playlist.containsSong(song);
+        if (added) {
+            playlist.addSong(song);
+        } else {
+            playlist.removeSong(song);
+        }
+
+        if (Admin.getJournal() != null) {
+            Admin.getJournal().addRemoveInPlaylist(this, playlistId, song);
+        }
+        return added;
+    }
     /**
      * Switches the visibility status of a playlist.
      *
@@ -377,6 +435,9 @@ public class User {
         }
         Playlist playlist = playlists.get(playlistId - 1);
         playlist.switchVisibility();
+        if (Admin.getJournal() != null) {
+            Admin.getJournal().switchVisibility(this, playlistId);
+        }
 
         if (playlist.getVisibility() == Enums.Visibility.PUBLIC) {
             return "Visibility status updated successfully to public.";
@@ -403,12 +464,12 @@ public class User {
      * @return A message indicating the success or failure of the follow/unfollow operation.
      */
     public String follow() {
+        if (searchBar == null || searchBar.getLastSelected() == null) {
+            return "Please select a source before following or unfollowing.";
+        }
         LibraryEntry selection = searchBar.getLastSelected();
         String searchType = searchBar.getLastSearchType();
 
-        if (selection == null) {
-            return "Please select a source before following or unfollowing.";
-        }
         if (!searchType.equals("playlist")) {
             return "The selected source is not a playlist.";
         }
@@ -417,18 +478,31 @@ public class User {
         if (playlist.getOwner().equals(username)) {
             return "You cannot follow or unfollow your own playlist.";
         }
-        if (followedPlaylists.contains(playlist)) {
+        if (!toggleFollow(playlist)) {
+            return "Playlist unfollowed successfully.";
+        }
+        return "Playlist followed successfully.";
+    }
+    /**
+     * Follows a playlist, or unfollows it if it is already followed.
+     *
+     * @param playlist The playlist.
+     * @return True if the playlist is now followed, false if it was unfollowed.
+     */
+    public boolean toggleFollow(final Playlist playlist) {
+        boolean followed = !followedPlaylists.contains(playlist);
+        if (followed) {
+            followedPlaylists.add(playlist);
+            playlist.increaseFollowers();
+        } else {
             followedPlaylists.remove(playlist);
             playlist.decreaseFollowers();
-
-            return "Playlist unfollowed successfully.";
         }
 
-        followedPlaylists.add(playlist);
-        playlist.increaseFollowers();
-
-
-        return "Playlist followed successfully.";
+        if (Admin.getJournal() != null) {
+            Admin.getJournal().follow(this, playlist);
+        }
+        return followed;
     }
     /**
      * Retrieves the player statistics for the user.
@@ -436,7 +510,19 @@ public class User {
      * @return PlayerStats object containing player statistics.
      */
     public PlayerStats getPlayerStats() {
-        return player.getStats();
+        sync();
+        return player().getStats();
+    }
+    /**
+     * Gets the songs liked by the user, in the order they were liked.
+     *
+     * @return A read-only view of the liked songs.
+     */
+    public Collection<Song> getLikedSongs() {
+        if (likedSongs == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableCollection(likedSongs);
     }
     /**
      * Shows a list of preferred songs liked by the user.
@@ -445,7 +531,7 @@ public class User {
      */
     public ArrayList<String> showPreferredSongs() {
         ArrayList<String> results = new ArrayList<>();
-        for (AudioFile audioFile : likedSongs) {
+        for (AudioFile audioFile : getLikedSongs()) {
             results.add(audioFile.getName());
         }
 
@@ -457,25 +543,10 @@ public class User {
      * @return A message indicating the user's preferred genre.
      */
     public String getPreferredGenre() {
-        String[] genres = {"pop", "rock", "rap"};
-        int[] counts = new int[genres.length];
-        int mostLikedIndex = -1;
-        int mostLikedCount = 0;
-
-        for (Song song : likedSongs) {
-            for (int i = 0; i < genres.length; i++) {
-                if (song.getGenre().equals(genres[i])) {
-                    counts[i]++;
-                    if (counts[i] > mostLikedCount) {
-                        mostLikedCount = counts[i];
-                        mostLikedIndex = i;
-                    }
-                    break;
-                }
-            }
+        String preferredGenre = likedSongs == null ? null : likedSongs.getPreferredGenre();
+        if (preferredGenre == null) {
+            preferredGenre = "unknown";
         }
-
-        String preferredGenre = mostLikedIndex != -1 ? genres[mostLikedIndex] : "unknown";
         return "This user's preferred genre is %s.".formatted(preferredGenre);
     }
     /**
@@ -484,20 +555,121 @@ public class User {
      * @param time The amount of simulated time to advance.
      */
     public void simulateTime(final int time) {
-        if (status) {
+        if (status && player != null) {
             player.simulatePlayer(time);
         }
     }
+    /**
+     * Brings the playback up to the admin's current timestamp and hands the user
+     * to the scheduler, since its next track boundary may have moved.
+     */
+    void sync() {
+        int now = Admin.getTimestamp();
+        if (now != syncedAt) {
+            simulateTime(now - syncedAt);
+            syncedAt = now;
+        }
+        Admin.getPlaybackScheduler().touch(this);
+    }
+    /**
+     * Computes the absolute time at which the current track ends.
+     *
+     * @return The deadline, or {@link PlaybackScheduler#NO_DEADLINE} if the user
+     * is offline or nothing is playing.
+     */
+    int nextDeadline() {
+        if (!status || player == null) {
+            return PlaybackScheduler.NO_DEADLINE;
+        }
+        int remaining = player.getTimeUntilTrackEnd();
+        if (remaining < 0) {
+            return PlaybackScheduler.NO_DEADLINE;
+        }
+        return syncedAt + remaining;
+    }
+
+    PlaybackScheduler.Deadline getDeadline() {
+        return deadline;
+    }
+
+    void setDeadline(final PlaybackScheduler.Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    int getRegistration() {
+        return registration;
+    }
+
+    void attach(final OnlineUsers users, final int order) {
+        this.onlineUsers = users;
+        this.registration = order;
+    }
+    /**
+     * Sets the type of the user.
+     *
+     * @param type The new type ("artist", or null for regular users).
+     */
+    public void setType(final String type) {
+        this.type = type;
+        if (onlineUsers != null) {
+            onlineUsers.update(this);
+        }
+    }
+    /**
+     * Sets the connection status of the user.
+     *
+     * @param status {@code true} for online, {@code false} for offline.
+     */
+    public void setStatus(final boolean status) {
+        this.status = status;
+        if (onlineUsers != null) {
+            onlineUsers.update(this);
+        }
+        if (!status) {
+            releaseIdleState();
+        }
+    }
+    /**
+     * Drops the player and the search bar when they hold nothing that a later
+     * command could read, so offline accounts only keep their library state.
+     */
+    private void releaseIdleState() {
+        if (player != null && player.isIdle()) {
+            player = null;
+        }
+        if (searchBar != null && !lastSearched && searchBar.isIdle()) {
+            searchBar = null;
+        }
+    }
+
+    private Player player() {
+        if (player == null) {
+            player = new Player();
+        }
+        return player;
+    }
+
+    private SearchBar searchBar() {
+        if (searchBar == null) {
+            searchBar = new SearchBar(username);
+        }
+        return searchBar;
+    }
+
+    private AudioFile currentAudioFile() {
+        return player == null ? null : player.getCurrentAudioFile();
+    }
     /**
      * Switches the connection status of the user.
      *
      * @return A message indicating the success or failure of the status switch.
      */
     public String switchConnectionStatus() {
-        if (status) {
-            status = false;
-        } else {
-            status = true;
+        sync();
+        setStatus(!status);
+
+        if (Admin.getJournal() != null) {
+            Admin.getJournal().switchConnectionStatus(this);
         }
         return " has changed status successfully.";
     }
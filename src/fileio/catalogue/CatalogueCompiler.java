@@ -0,0 +1,199 @@
+package fileio.catalogue;
+
+import checker.CheckerConstants;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fileio.input.EpisodeInput;
+import fileio.input.LibraryInput;
+import fileio.input.PodcastInput;
+import fileio.input.SongInput;
+import fileio.input.UserInput;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static fileio.catalogue.CatalogueFormat.NULL;
+
+/**
+ * Compiles a library JSON file into the binary catalogue read by
+ * {@link MappedCatalogue}. The catalogue keeps the size and modification time
+ * of the JSON it was compiled from; run the compiler again whenever the library
+ * changes, since an out of date catalogue is ignored in favour of the JSON.
+ */
+public final class CatalogueCompiler {
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final ByteArrayOutputStream stringData = new ByteArrayOutputStream();
+    private final List<Integer> stringOffsets = new ArrayList<>(List.of(0));
+
+    private CatalogueCompiler() {
+    }
+
+    /**
+     * @param args the library JSON and the catalogue to write, defaulting to
+     *             {@code library.json} and {@code library.bin} in the input library folder
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void main(final String[] args) throws IOException {
+        String libraryPath = CheckerConstants.TESTS_PATH + "library/";
+        File json = new File(args.length > 0 ? args[0] : libraryPath + "library.json");
+        Path output = Path.of(args.length > 1 ? args[1] : libraryPath + "library.bin");
+        compile(json, output);
+    }
+
+    /**
+     * Compiles a library JSON file, recording its size and modification time.
+     *
+     * @param json   The library JSON.
+     * @param output The catalogue file to write.
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void compile(final File json, final Path output) throws IOException {
+        // stamped before reading, so a change made while compiling makes the catalogue stale
+        long size = json.length();
+        long modified = json.lastModified();
+        LibraryInput library = new ObjectMapper().readValue(json, LibraryInput.class);
+        new CatalogueCompiler().write(library, output, size, modified);
+    }
+
+    /**
+     * Writes the songs, podcasts and users of a library to a catalogue file.
+     * The catalogue is not tied to any JSON file, so it is only read directly.
+     *
+     * @param library The parsed library.
+     * @param output  The catalogue file to write.
+     * @throws IOException in case of exceptions to writing
+     */
+    public static void compile(final LibraryInput library, final Path output) throws IOException {
+        new CatalogueCompiler().write(library, output, CatalogueFormat.NO_SOURCE,
+                CatalogueFormat.NO_SOURCE);
+    }
+
+    private void write(final LibraryInput library, final Path output, final long sourceSize,
+                       final long sourceModified) throws IOException {
+        List<SongInput> songs = orEmpty(library.getSongs());
+        List<PodcastInput> podcasts = orEmpty(library.getPodcasts());
+        List<UserInput> users = orEmpty(library.getUsers());
+
+        List<Integer> tags = new ArrayList<>();
+        int[] songRecords = new int[songs.size() * CatalogueFormat.SONG_INTS];
+        int at = 0;
+        for (SongInput song : songs) {
+            songRecords[at++] = string(song.getName());
+            songRecords[at++] = number(song.getDuration());
+            songRecords[at++] = string(song.getAlbum());
+            songRecords[at++] = string(song.getLyrics());
+            songRecords[at++] = string(song.getGenre());
+            songRecords[at++] = number(song.getReleaseYear());
+            songRecords[at++] = string(song.getArtist());
+            songRecords[at++] = tags.size();
+            if (song.getTags() == null) {
+                songRecords[at++] = NULL;
+            } else {
+                songRecords[at++] = song.getTags().size();
+                for (String tag : song.getTags()) {
+                    tags.add(string(tag));
+                }
+            }
+        }
+
+        List<EpisodeInput> episodes = new ArrayList<>();
+        int[] podcastRecords = new int[podcasts.size() * CatalogueFormat.PODCAST_INTS];
+        at = 0;
+        for (PodcastInput podcast : podcasts) {
+            podcastRecords[at++] = string(podcast.getName());
+            podcastRecords[at++] = string(podcast.getOwner());
+            podcastRecords[at++] = episodes.size();
+            if (podcast.getEpisodes() == null) {
+                podcastRecords[at++] = NULL;
+            } else {
+                podcastRecords[at++] = podcast.getEpisodes().size();
+                episodes.addAll(podcast.getEpisodes());
+            }
+        }
+
+        int[] episodeRecords = new int[episodes.size() * CatalogueFormat.EPISODE_INTS];
+        at = 0;
+        for (EpisodeInput episode : episodes) {
+            episodeRecords[at++] = string(episode.getName());
+            episodeRecords[at++] = number(episode.getDuration());
+            episodeRecords[at++] = string(episode.getDescription());
+        }
+
+        int[] userRecords = new int[users.size() * CatalogueFormat.USER_INTS];
+        at = 0;
+        for (UserInput user : users) {
+            userRecords[at++] = string(user.getUsername());
+            userRecords[at++] = user.getAge();
+            userRecords[at++] = string(user.getCity());
+            userRecords[at++] = string(user.getType());
+        }
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(output)))) {
+            out.writeInt(CatalogueFormat.MAGIC);
+            out.writeInt(CatalogueFormat.VERSION);
+            out.writeInt(stringIds.size());
+            out.writeInt(songs.size());
+            out.writeInt(tags.size());
+            out.writeInt(podcasts.size());
+            out.writeInt(episodes.size());
+            out.writeInt(users.size());
+            out.writeInt(stringData.size());
+            out.writeLong(sourceSize);
+            out.writeLong(sourceModified);
+
+            for (int offset : stringOffsets) {
+                out.writeInt(offset);
+            }
+            stringData.writeTo(out);
+            writeInts(out, songRecords);
+            for (int tag : tags) {
+                out.writeInt(tag);
+            }
+            writeInts(out, podcastRecords);
+            writeInts(out, episodeRecords);
+            writeInts(out, userRecords);
+        }
+    }
+
+    /**
+     * Gets the id of a string in the string table, adding it if it is new.
+     */
+    private int string(final String value) {
+        if (value == null) {
+            return NULL;
+        }
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            id = stringIds.size();
+            stringIds.put(value, id);
+            stringData.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+            stringOffsets.add(stringData.size());
+        }
+        return id;
+    }
+
+    private static int number(final Integer value) {
+        return value == null ? NULL : value;
+    }
+
+    private static void writeInts(final DataOutputStream out, final int[] values)
+            throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static <T> List<T> orEmpty(final List<T> list) {
+        return list == null ? List.of() : list;
+    }
+}
@@ -0,0 +1,34 @@
+package fileio.catalogue;
+
+/**
+ * Layout of a compiled library catalogue. All values are big-endian ints:
+ * <pre>
+ * header     MAGIC VERSION strings songs tags podcasts episodes users stringBytes
+ *            sourceSize sourceModified (longs, {@link #NO_SOURCE} if not compiled from a file)
+ * strings    (strings + 1) byte offsets into the string data, then the UTF-8 data
+ * songs      name duration album lyrics genre releaseYear artist tagStart tagCount
+ * tags       string ids
+ * podcasts   name owner episodeStart episodeCount
+ * episodes   name duration description
+ * users      username age city type
+ * </pre>
+ * Every string is stored once and referenced by its id, {@link #NULL} stands
+ * for a missing string, list or number.
+ */
+final class CatalogueFormat {
+    static final int MAGIC = 0x4C434154;
+    static final int VERSION = 2;
+    static final int NULL = Integer.MIN_VALUE;
+    static final long NO_SOURCE = -1;
+
+    static final int HEADER_INTS = 13;
+    static final int SOURCE_SIZE_INT = 9;
+    static final int SOURCE_MODIFIED_INT = 11;
+    static final int SONG_INTS = 9;
+    static final int PODCAST_INTS = 4;
+    static final int EPISODE_INTS = 3;
+    static final int USER_INTS = 4;
+
+    private CatalogueFormat() {
+    }
+}
@@ -0,0 +1,267 @@
+package fileio.catalogue;
+
+import fileio.input.EpisodeInput;
+import fileio.input.PodcastInput;
+import fileio.input.SongInput;
+import fileio.input.UserInput;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static fileio.catalogue.CatalogueFormat.NULL;
+
+/**
+ * A compiled library catalogue mapped into memory. Nothing is decoded when the
+ * file is opened; each of the song, podcast and user lists is decoded from the
+ * mapped records the first time it is requested and kept. Every string is
+ * decoded once and shared by all the entries that reference it.
+ * <p>
+ * The engine copies the lists into its own structures when it loads them, so
+ * compared with the JSON the gain is the parse: there is no text to tokenize
+ * and no repeated string to decode again.
+ */
+public final class MappedCatalogue {
+    private final ByteBuffer buffer;
+    private final long sourceSize;
+    private final long sourceModified;
+    private final int songCount;
+    private final int podcastCount;
+    private final int userCount;
+    private final int stringOffsets;
+    private final int stringData;
+    private final int songs;
+    private final int tags;
+    private final int podcasts;
+    private final int episodes;
+    private final int users;
+    private final String[] strings;
+    private List<SongInput> songList;
+    private List<PodcastInput> podcastList;
+    private List<UserInput> userList;
+
+    private MappedCatalogue(final ByteBuffer buffer, final Path path) throws IOException {
+        this.buffer = buffer;
+        if (!isCurrentFormat(buffer)) {
+            throw new IOException("Not a library catalogue of version "
+                    + CatalogueFormat.VERSION + ": " + path);
+        }
+
+        sourceSize = buffer.getLong(CatalogueFormat.SOURCE_SIZE_INT * Integer.BYTES);
+        sourceModified = buffer.getLong(CatalogueFormat.SOURCE_MODIFIED_INT * Integer.BYTES);
+        int stringCount = header(2);
+        songCount = header(3);
+        int tagCount = header(4);
+        podcastCount = header(5);
+        int episodeCount = header(6);
+        userCount = header(7);
+        int stringBytes = header(8);
+
+        stringOffsets = CatalogueFormat.HEADER_INTS * Integer.BYTES;
+        stringData = stringOffsets + (stringCount + 1) * Integer.BYTES;
+        songs = stringData + stringBytes;
+        tags = songs + songCount * CatalogueFormat.SONG_INTS * Integer.BYTES;
+        podcasts = tags + tagCount * Integer.BYTES;
+        episodes = podcasts + podcastCount * CatalogueFormat.PODCAST_INTS * Integer.BYTES;
+        users = episodes + episodeCount * CatalogueFormat.EPISODE_INTS * Integer.BYTES;
+        if (users + userCount * CatalogueFormat.USER_INTS * Integer.BYTES != buffer.limit()) {
+            throw new IOException("Truncated library catalogue: " + path);
+        }
+        strings = new String[stringCount];
+    }
+
+    /**
+     * Maps a catalogue file written by {@link CatalogueCompiler}.
+     *
+     * @param path The catalogue file.
+     * @return The mapped catalogue.
+     * @throws IOException if the file cannot be read or is not a catalogue
+     */
+    public static MappedCatalogue open(final Path path) throws IOException {
+        return new MappedCatalogue(map(path), path);
+    }
+
+    /**
+     * Maps a catalogue file, if it is up to date: written in the current format
+     * by {@link CatalogueCompiler#compile(File, Path)} from the library JSON as
+     * it is now, with the same size and modification time.
+     *
+     * @param path The catalogue file.
+     * @param json The library JSON the catalogue should be compiled from.
+     * @return The mapped catalogue, or {@code null} if there is none or it is out of date.
+     * @throws IOException if the file cannot be read or is truncated
+     */
+    public static MappedCatalogue openIfCurrent(final Path path, final File json)
+            throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        ByteBuffer buffer = map(path);
+        if (!isCurrentFormat(buffer)) {
+            return null;
+        }
+        MappedCatalogue catalogue = new MappedCatalogue(buffer, path);
+        if (catalogue.sourceSize != json.length()
+                || catalogue.sourceModified != json.lastModified()) {
+            return null;
+        }
+        return catalogue;
+    }
+
+    private static ByteBuffer map(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Library catalogue larger than 2 GB: " + path);
+            }
+            // the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static boolean isCurrentFormat(final ByteBuffer buffer) {
+        return buffer.limit() >= CatalogueFormat.HEADER_INTS * Integer.BYTES
+                && buffer.getInt(0) == CatalogueFormat.MAGIC
+                && buffer.getInt(Integer.BYTES) == CatalogueFormat.VERSION;
+    }
+
+    /**
+     * Gets the songs of the library, decoded on the first call.
+     *
+     * @return A read-only list of the songs.
+     */
+    public List<SongInput> getSongs() {
+        if (songList == null) {
+            songList = decode(songCount, this::song);
+        }
+        return songList;
+    }
+
+    /**
+     * Gets the podcasts of the library, decoded on the first call.
+     *
+     * @return A read-only list of the podcasts.
+     */
+    public List<PodcastInput> getPodcasts() {
+        if (podcastList == null) {
+            podcastList = decode(podcastCount, this::podcast);
+        }
+        return podcastList;
+    }
+
+    /**
+     * Gets the users of the library, decoded on the first call.
+     *
+     * @return A read-only list of the users.
+     */
+    public List<UserInput> getUsers() {
+        if (userList == null) {
+            userList = decode(userCount, this::user);
+        }
+        return userList;
+    }
+
+    private static <T> List<T> decode(final int count, final IntFunction<T> decoder) {
+        List<T> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(decoder.apply(i));
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    private SongInput song(final int index) {
+        int record = songs + index * CatalogueFormat.SONG_INTS * Integer.BYTES;
+        SongInput song = new SongInput();
+        song.setName(string(field(record, 0)));
+        song.setDuration(number(field(record, 1)));
+        song.setAlbum(string(field(record, 2)));
+        song.setLyrics(string(field(record, 3)));
+        song.setGenre(string(field(record, 4)));
+        song.setReleaseYear(number(field(record, 5)));
+        song.setArtist(string(field(record, 6)));
+
+        int tagCount = field(record, 8);
+        if (tagCount != NULL) {
+            int tagStart = field(record, 7);
+            ArrayList<String> songTags = new ArrayList<>(tagCount);
+            for (int i = 0; i < tagCount; i++) {
+                songTags.add(string(buffer.getInt(tags + (tagStart + i) * Integer.BYTES)));
+            }
+            song.setTags(songTags);
+        }
+        return song;
+    }
+
+    private PodcastInput podcast(final int index) {
+        int record = podcasts + index * CatalogueFormat.PODCAST_INTS * Integer.BYTES;
+        PodcastInput podcast = new PodcastInput();
+        podcast.setName(string(field(record, 0)));
+        podcast.setOwner(string(field(record, 1)));
+
+        int episodeCount = field(record, 3);
+        if (episodeCount != NULL) {
+            int episodeStart = field(record, 2);
+            ArrayList<EpisodeInput> podcastEpisodes = new ArrayList<>(episodeCount);
+            for (int i = 0; i < episodeCount; i++) {
+                podcastEpisodes.add(episode(episodeStart + i));
+            }
+            podcast.setEpisodes(podcastEpisodes);
+        }
+        return podcast;
+    }
+
+    private EpisodeInput episode(final int index) {
+        int record = episodes + index * CatalogueFormat.EPISODE_INTS * Integer.BYTES;
+        EpisodeInput episode = new EpisodeInput();
+        episode.setName(string(field(record, 0)));
+        episode.setDuration(number(field(record, 1)));
+        episode.setDescription(string(field(record, 2)));
+        return episode;
+    }
+
+    private UserInput user(final int index) {
+        int record = users + index * CatalogueFormat.USER_INTS * Integer.BYTES;
+        UserInput user = new UserInput();
+        user.setUsername(string(field(record, 0)));
+        user.setAge(field(record, 1));
+        user.setCity(string(field(record, 2)));
+        user.setType(string(field(record, 3)));
+        return user;
+    }
+
+    private int header(final int field) {
+        return buffer.getInt(field * Integer.BYTES);
+    }
+
+    private int field(final int record, final int field) {
+        return buffer.getInt(record + field * Integer.BYTES);
+    }
+
+    private String string(final int id) {
+        if (id == NULL) {
+            return null;
+        }
+        String value = strings[id];
+        if (value == null) {
+            int start = buffer.getInt(stringOffsets + id * Integer.BYTES);
+            int end = buffer.getInt(stringOffsets + (id + 1) * Integer.BYTES);
+            byte[] bytes = new byte[end - start];
+            buffer.get(stringData + start, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[id] = value;
+        }
+        return value;
+    }
+
+    private static Integer number(final int value) {
+        return value == NULL ? null : value;
+    }
+}
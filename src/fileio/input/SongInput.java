@@ -1,8 +1,10 @@
 package fileio.input;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 
-public final class SongInput {
+public final class SongInput implements Serializable {
+    private static final long serialVersionUID = 1L;
     private String name;
     private Integer duration;
     private String album;
@@ -63,11 +65,11 @@ public final class SongInput {
         this.genre = genre;
     }
 
-    public int getReleaseYear() {
+    public Integer getReleaseYear() {
         return releaseYear;
     }
 
-    public void setReleaseYear(final int releaseYear) {
+    public void setReleaseYear(final Integer releaseYear) {
         this.releaseYear = releaseYear;
     }
 
@@ -0,0 +1,130 @@
+package main;
+
+import app.Admin;
+import app.CommandRegistry;
+import checker.CheckerConstants;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs every input file through {@link Main#process} on a bounded thread pool.
+ * Each file gets a fresh engine on its worker thread, so the results are the
+ * same as a sequential run, and the wall time is reported against the one of
+ * a sequential run as a speedup.
+ */
+public final class BatchRunner {
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final String BASELINE_OPTION = "--baseline";
+
+    /**
+     * for coding style
+     */
+    private BatchRunner() {
+    }
+
+    /**
+     * @param args the number of worker threads (optional, defaults to the number of
+     *             processors), optionally followed by {@code --baseline <seconds>}, the
+     *             wall time of a sequential run to compare with instead of timing one
+     * @throws IOException in case of exceptions to reading / writing
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        long baseline = -1;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals(BASELINE_OPTION) && i + 1 < args.length) {
+                baseline = (long) (Double.parseDouble(args[++i]) * NANOS_PER_SECOND);
+            } else {
+                threads = Integer.parseInt(args[i]);
+            }
+        }
+
+        Path path = Paths.get(CheckerConstants.RESULT_PATH);
+        if (Files.exists(path)) {
+            File resultFile = new File(String.valueOf(path));
+            for (File file : Objects.requireNonNull(resultFile.listFiles())) {
+                file.delete();
+            }
+            resultFile.delete();
+        }
+        Files.createDirectories(path);
+
+        File[] inputs = Objects.requireNonNull(new File(CheckerConstants.TESTS_PATH).listFiles());
+        Arrays.sort(inputs);
+        List<String> fileNames = new ArrayList<>();
+        for (File file : inputs) {
+            if (!file.getName().startsWith("library")) {
+                fileNames.add(file.getName());
+            }
+        }
+
+        long parallel = runAll(fileNames, threads);
+        long sequential = parallel;
+        if (baseline >= 0) {
+            sequential = baseline;
+        } else if (threads > 1) {
+            // the sequential run comes second and so runs on a warmer JIT, which
+            // understates the speedup; a baseline from a separate one-thread run avoids it
+            sequential = runAll(fileNames, 1);
+        }
+        System.out.printf("%d files: sequential %.3fs, %d threads %.3fs, speedup %.2fx%n",
+                fileNames.size(), sequential / NANOS_PER_SECOND, threads,
+                parallel / NANOS_PER_SECOND, (double) sequential / parallel);
+        CommandRegistry.printProfileIfRequested(System.out);
+    }
+
+    /**
+     * Processes every input file on a pool of the given size.
+     *
+     * @return the wall time, in nanoseconds
+     */
+    private static long runAll(final List<String> fileNames, final int threads)
+            throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> runs = new ArrayList<>();
+        long start = System.nanoTime();
+        for (String fileName : fileNames) {
+            String filepath = CheckerConstants.OUT_PATH + fileName;
+            runs.add(executor.submit(() -> {
+                run(fileName, filepath);
+                return null;
+            }));
+        }
+        executor.shutdown();
+
+        for (Future<?> run : runs) {
+            try {
+                run.get();
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Processes one input file on a fresh engine.
+     *
+     * @param fileName the input file name
+     * @param filepath the output file path
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    private static void run(final String fileName, final String filepath) throws IOException {
+        Admin.newInstance();
+        new File(filepath).createNewFile();
+        Main.process(fileName, filepath);
+    }
+}
@@ -1,26 +1,40 @@
 package main;
 
 import app.Admin;
-import app.CommandRunner;
+import app.Checkpoint;
+import app.CommandRegistry;
+import app.Journal;
 import checker.Checker;
 import checker.CheckerConstants;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fileio.catalogue.MappedCatalogue;
 import fileio.input.CommandInput;
 import fileio.input.LibraryInput;
+import fileio.input.PodcastInput;
+import fileio.input.SongInput;
+import fileio.input.UserInput;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
 import java.util.Objects;
 
 /**
  * The entry point to this homework. It runs the checker that tests your implentation.
  */
 public final class Main {
+    private static final long NO_CHECKPOINT = -1;
+
     /**
      * for coding style
      */
@@ -70,62 +84,227 @@ public final class Main {
     public static void action(final String filePath1,
                               final String filePath2) throws IOException {
         ObjectMapper objectMapper = new ObjectMapper();
-        LibraryInput library = objectMapper.readValue(new File(CheckerConstants.TESTS_PATH
-                                                               + "library/library.json"),
-                                                               LibraryInput.class);
-        CommandInput[] commands = objectMapper.readValue(new File(CheckerConstants.TESTS_PATH
-                + "test04_etapa2.json"), CommandInput[].class);
+        loadLibrary(objectMapper);
+        runCommands(objectMapper, new File(CheckerConstants.TESTS_PATH + "test04_etapa2.json"),
+                filePath2, 0, 0, NO_CHECKPOINT, null);
+        Admin.reset();
+    }
+
+    /**
+     * Runs the command log of the given input file. {@link #action(String, String)}
+     * keeps running the same log for every input, as the checker expects of it.
+     *
+     * @param filePath1 for input file
+     * @param filePath2 for output file
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void process(final String filePath1,
+                               final String filePath2) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        loadLibrary(objectMapper);
+        runCommands(objectMapper, new File(CheckerConstants.TESTS_PATH + filePath1),
+                filePath2, 0, 0, NO_CHECKPOINT, null);
+        Admin.reset();
+    }
+
+    /**
+     * Runs a command log like {@link #process}, saving a checkpoint of the engine
+     * after the given number of commands.
+     *
+     * @param filePath1      for input file
+     * @param filePath2      for output file
+     * @param checkpointAt   the number of commands to run before the checkpoint
+     * @param checkpointPath for the checkpoint file
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void action(final String filePath1, final String filePath2,
+                              final long checkpointAt,
+                              final String checkpointPath) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        loadLibrary(objectMapper);
+        runCommands(objectMapper, new File(CheckerConstants.TESTS_PATH + filePath1),
+                filePath2, 0, 0, checkpointAt, Path.of(checkpointPath));
+        Admin.reset();
+    }
+
+    /**
+     * Runs a command log like {@link #process}, recording the changes its commands
+     * make in a journal, and saving a checkpoint of the engine after the given
+     * number of commands. The run starts from the library, so the journal and
+     * checkpoint of an earlier run at the same paths are dropped: applied again
+     * on top of this run, they would undo its toggles and add its users twice.
+     *
+     * @param filePath1      for input file
+     * @param filePath2      for output file
+     * @param checkpointAt   the number of commands to run before the checkpoint,
+     *                       or -1 for none
+     * @param checkpointPath for the checkpoint file, or null for none
+     * @param journalPath    for the journal file, emptied if it exists
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void action(final String filePath1, final String filePath2,
+                              final long checkpointAt, final String checkpointPath,
+                              final String journalPath) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        loadLibrary(objectMapper);
+        if (checkpointPath != null) {
+            Files.deleteIfExists(Path.of(checkpointPath));
+        }
+        try (Journal journal = Journal.create(Path.of(journalPath))) {
+            Admin.setJournal(journal);
+            runCommands(objectMapper, new File(CheckerConstants.TESTS_PATH + filePath1),
+                    filePath2, 0, 0, checkpointAt,
+                    checkpointPath == null ? null : Path.of(checkpointPath));
+        } finally {
+            Admin.setJournal(null);
+        }
+        Admin.reset();
+    }
+
+    /**
+     * Rebuilds the state left by a journaled run that stopped, possibly by a
+     * crash: the engine is restored from the checkpoint, or loaded with the
+     * library when there is none, and the journal records written after it are
+     * applied. Only the journaled state comes back, who is online included, not
+     * the players or searches of the users; the journal is not attached afterwards.
+     *
+     * @param checkpointPath for the checkpoint file, which may not exist
+     * @param journalPath    for the journal file
+     * @throws IOException in case of exceptions to reading
+     */
+    public static void recover(final String checkpointPath,
+                               final String journalPath) throws IOException {
+        long journalPosition = 0;
+        if (checkpointPath != null && Files.exists(Path.of(checkpointPath))) {
+            journalPosition = Checkpoint.restore(Path.of(checkpointPath)).getJournalPosition();
+        } else {
+            Admin.newInstance();
+            loadLibrary(new ObjectMapper());
+        }
+        Journal.replay(Path.of(journalPath), journalPosition);
+    }
+
+    /**
+     * Restores the engine from a checkpoint and runs the rest of the command log.
+     * The output holds the results of the commands after the checkpoint, the same
+     * as the ones a full run writes after its first {@link Checkpoint#getOutputs()}.
+     *
+     * @param checkpointPath for the checkpoint file
+     * @param filePath1      for input file
+     * @param filePath2      for output file
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void resume(final String checkpointPath, final String filePath1,
+                              final String filePath2) throws IOException {
+        Checkpoint checkpoint = Checkpoint.restore(Path.of(checkpointPath));
+        runCommands(new ObjectMapper(), new File(CheckerConstants.TESTS_PATH + filePath1),
+                filePath2, checkpoint.getCommands(), checkpoint.getOutputs(),
+                NO_CHECKPOINT, null);
+        Admin.reset();
+    }
+
+    private static void loadLibrary(final ObjectMapper objectMapper) throws IOException {
+        File libraryJson = new File(CheckerConstants.TESTS_PATH + "library/library.json");
+        File libraryCatalogue = new File(CheckerConstants.TESTS_PATH + "library/library.bin");
+
+        // a catalogue compiled by CatalogueCompiler is mapped instead of parsing the JSON,
+        // unless it was compiled from another version of the JSON
+        MappedCatalogue catalogue = MappedCatalogue.openIfCurrent(libraryCatalogue.toPath(),
+                libraryJson);
+        List<UserInput> users;
+        List<SongInput> songs;
+        List<PodcastInput> podcasts;
+        if (catalogue != null) {
+            users = catalogue.getUsers();
+            songs = catalogue.getSongs();
+            podcasts = catalogue.getPodcasts();
+        } else {
+            LibraryInput library = objectMapper.readValue(libraryJson, LibraryInput.class);
+            users = library.getUsers();
+            songs = library.getSongs();
+            podcasts = library.getPodcasts();
+        }
 
-        ArrayNode outputs = objectMapper.createArrayNode();
         Admin.resetArtist();
-        Admin.setUsers(library.getUsers());
-        Admin.setSongs(library.getSongs());
-        Admin.setPodcasts(library.getPodcasts());
-
-        for (CommandInput command : commands) {
-            Admin.updateTimestamp(command.getTimestamp());
-
-            String commandName = command.getCommand();
-
-            switch (commandName) {
-                case "search" -> outputs.add(CommandRunner.search(command));
-                case "select" -> outputs.add(CommandRunner.select(command));
-                case "load" -> outputs.add(CommandRunner.load(command));
-                case "playPause" -> outputs.add(CommandRunner.playPause(command));
-                case "repeat" -> outputs.add(CommandRunner.repeat(command));
-                case "shuffle" -> outputs.add(CommandRunner.shuffle(command));
-                case "forward" -> outputs.add(CommandRunner.forward(command));
-                case "backward" -> outputs.add(CommandRunner.backward(command));
-                case "like" -> outputs.add(CommandRunner.like(command));
-                case "next" -> outputs.add(CommandRunner.next(command));
-                case "prev" -> outputs.add(CommandRunner.prev(command));
-                case "createPlaylist" -> outputs.add(CommandRunner.createPlaylist(command));
-                case "addRemoveInPlaylist" ->
-                        outputs.add(CommandRunner.addRemoveInPlaylist(command));
-                case "switchVisibility" -> outputs.add(CommandRunner.switchVisibility(command));
-                case "showPlaylists" -> outputs.add(CommandRunner.showPlaylists(command));
-                case "follow" -> outputs.add(CommandRunner.follow(command));
-                case "status" -> outputs.add(CommandRunner.status(command));
-                case "showPreferredSongs" -> outputs.add(CommandRunner.showLikedSongs(command));
-                case "getPreferredGenre" -> outputs.add(CommandRunner.getPreferredGenre(command));
-                case "getTop5Songs" -> outputs.add(CommandRunner.getTop5Songs(command));
-                case "getTop5Playlists" -> outputs.add(CommandRunner.getTop5Playlists(command));
-                case "switchConnectionStatus" ->
-                        outputs.add(CommandRunner.switchConnectionStatus(command));
-                case "getOnlineUsers" -> outputs.add(CommandRunner.getOnlineUsers(command));
-                case "addUser" -> outputs.add(CommandRunner.addUsers(command));
-                case "addAlbum" -> outputs.add(CommandRunner.addAlbums(command));
-                case "showAlbums" -> outputs.add(CommandRunner.showAlbums(command));
-                case "printCurrentPage" -> outputs.add(CommandRunner.printCurrentPage(command));
-                case "addEvent" -> outputs.add(CommandRunner.addEvent(command));
-                case "addMerch" -> outputs.add(CommandRunner.addMerch(command));
-                default -> System.out.println("Invalid command " + commandName);
-            }
+        Admin.setUsers(users);
+        Admin.setSongs(songs);
+        Admin.setPodcasts(podcasts);
+    }
+
+    /**
+     * Runs the commands of a log after the first {@code skip}, writing their results.
+     * The results are streamed to a temporary file next to the output, which only
+     * replaces it once every command ran, so a run that fails leaves no partial
+     * result behind.
+     */
+    private static void runCommands(final ObjectMapper objectMapper, final File commands,
+                                    final String filePath2, final long skip,
+                                    final long outputsBefore, final long checkpointAt,
+                                    final Path checkpointPath) throws IOException {
+        Path output = Path.of(filePath2).toAbsolutePath();
+        Path partial = Files.createTempFile(output.getParent(),
+                output.getFileName() + ".", ".part");
+        try {
+            writeResults(objectMapper, commands, partial.toFile(), skip, outputsBefore,
+                    checkpointAt, checkpointPath);
+            Files.move(partial, output, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(partial);
         }
+    }
 
+    private static void writeResults(final ObjectMapper objectMapper, final File commands,
+                                     final File results, final long skip,
+                                     final long outputsBefore, final long checkpointAt,
+                                     final Path checkpointPath) throws IOException {
+        // commands are read and their results written one at a time,
+        // so memory does not grow with the length of the log
         ObjectWriter objectWriter = objectMapper.writerWithDefaultPrettyPrinter();
-        objectWriter.writeValue(new File(filePath2), outputs);
+        try (JsonParser parser = objectMapper.getFactory().createParser(commands);
+             JsonGenerator generator = objectWriter.createGenerator(results,
+                     JsonEncoding.UTF8)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("The command file must contain an array of commands");
+            }
+            generator.writeStartArray();
 
-        Admin.reset();
+            long index = 0;
+            long outputs = outputsBefore;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                if (index < skip) {
+                    parser.skipChildren();
+                    index++;
+                    continue;
+                }
+                if (index == checkpointAt) {
+                    Checkpoint.save(checkpointPath, index, outputs);
+                }
+
+                CommandInput command = objectMapper.readValue(parser, CommandInput.class);
+                Admin.updateTimestamp(command.getTimestamp());
+
+                ObjectNode output = CommandRegistry.dispatch(command);
+
+                if (output != null) {
+                    generator.writeTree(output);
+                    outputs++;
+                }
+                if (Admin.getJournal() != null) {
+                    Admin.getJournal().syncIfDue();
+                }
+                index++;
+            }
+            if (index == checkpointAt) {
+                Checkpoint.save(checkpointPath, index, outputs);
+            }
+            if (index < skip) {
+                throw new IOException("The checkpoint is past the end of " + commands);
+            }
+            if (Admin.getJournal() != null) {
+                Admin.getJournal().sync();
+            }
+
+            generator.writeEndArray();
+        }
     }
 }
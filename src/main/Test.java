@@ -1,5 +1,6 @@
 package main;
 
+import app.CommandRegistry;
 import checker.CheckerConstants;
 
 import java.io.File;
@@ -33,6 +34,7 @@ public final class Test {
             for (File file : inputDir) {
                 if (file.getName().equalsIgnoreCase(fileName)) {
                     Main.action(file.getAbsolutePath(), CheckerConstants.OUT_FILE);
+                    CommandRegistry.printProfileIfRequested(System.out);
                     break;
                 }
             }